@@ -0,0 +1,121 @@
+package com.example.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.example.scheduler.model.Classroom;
+import com.example.scheduler.model.Course;
+import com.example.scheduler.model.DataRepository;
+import com.example.scheduler.model.SchedulingResult;
+import com.example.scheduler.model.Slot;
+import com.example.scheduler.model.Student;
+import com.example.scheduler.service.ConflictGraph;
+import com.example.scheduler.service.DSaturStrategy;
+import com.example.scheduler.service.GreedyStrategy;
+import com.example.scheduler.service.SchedulingEngine;
+import com.example.scheduler.service.SchedulingOptions;
+import com.example.scheduler.service.SchedulingStrategy;
+
+// Compares solving the whole conflict graph with solving its components in parallel
+// (SchedulingOptions.decomposeComponents) on a synthetic dataset of independent faculties whose
+// students only take courses of their own faculty, most of them of their own year. All faculties
+// share the rooms.
+// Arguments: [faculties] [courses per faculty] [students per faculty] [repetitions], default 8 72 1000 5.
+public class ComponentBenchmark {
+
+    private static final int YEARS = 6;
+    private static final int ELECTIVE_EVERY = 20;
+    private static final int COURSES_PER_STUDENT = 5;
+    private static final int DAYS = 10;
+    private static final String[] SLOT_TIMES = { "09:00-11:00", "11:30-13:30", "14:00-16:00", "17:00-19:00" };
+    private static final int ROOMS = 30;
+
+    public static void main(String[] args) {
+        int faculties = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int coursesPerFaculty = args.length > 1 ? Integer.parseInt(args[1]) : 72;
+        int studentsPerFaculty = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int repetitions = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        DataRepository repo = generate(faculties, coursesPerFaculty, studentsPerFaculty, new Random(42));
+        ConflictGraph graph = new ConflictGraph(repo.getCourses().values());
+        System.out.println(faculties + " faculties: " + repo.getCourses().size() + " courses, "
+                + repo.getStudents().size() + " students, " + graph.connectedComponents().length + " components, "
+                + Runtime.getRuntime().availableProcessors() + " processors");
+
+        for (SchedulingStrategy strategy : new SchedulingStrategy[] { new GreedyStrategy(),
+                new DSaturStrategy(true, 1) }) {
+            for (boolean decompose : new boolean[] { false, true }) {
+                SchedulingOptions options = new SchedulingOptions();
+                options.setPortfolioSize(1);
+                options.setLocalSearchMillis(0);
+                options.setBacktrackingFallback(false);
+                options.setDecomposeComponents(decompose);
+                options.setParallelism(faculties);
+
+                long best = Long.MAX_VALUE;
+                SchedulingResult result = null;
+                SchedulingEngine engine = null;
+                for (int i = 0; i < repetitions; i++) {
+                    engine = new SchedulingEngine(repo, strategy, options);
+                    long start = System.nanoTime();
+                    List<SchedulingResult> results = engine.generateRankedSolutions();
+                    best = Math.min(best, System.nanoTime() - start);
+                    result = results.isEmpty() ? null : results.get(0);
+                }
+                System.out.println(strategy.getName() + (decompose ? ", per component" : ", whole graph") + ": "
+                        + (result == null ? "no schedule (" + engine.getLastFailure().getMessage() + ")"
+                                : "penalty " + result.getPenaltyScore() + ", "
+                                        + result.getSchedule().getAllExams().size() + " exams")
+                        + ", best of " + repetitions + " " + best / 1_000_000 + " ms");
+            }
+        }
+    }
+
+    private static DataRepository generate(int faculties, int coursesPerFaculty, int studentsPerFaculty,
+            Random random) {
+        List<Student> students = new ArrayList<>();
+        List<String> courseCodes = new ArrayList<>();
+        for (int f = 0; f < faculties; f++) {
+            for (int s = 0; s < studentsPerFaculty; s++) {
+                students.add(new Student(String.format("Std_F%d_%05d", f, s)));
+            }
+            for (int c = 0; c < coursesPerFaculty; c++) {
+                courseCodes.add(String.format("CourseCode_F%d_%03d", f, c));
+            }
+        }
+        List<Classroom> rooms = new ArrayList<>();
+        for (int r = 0; r < ROOMS; r++) {
+            rooms.add(new Classroom(String.format("Classroom_%02d", r + 1), 40 + 10 * (r % 9)));
+        }
+
+        DataRepository repo = new DataRepository();
+        repo.replaceData(students, courseCodes, rooms, List.<Map<String, Course>>of());
+        for (int f = 0; f < faculties; f++) {
+            for (int s = 0; s < studentsPerFaculty; s++) {
+                String student = String.format("Std_F%d_%05d", f, s);
+                int year = s % YEARS;
+                int first = year * coursesPerFaculty / YEARS;
+                int last = (year + 1) * coursesPerFaculty / YEARS;
+                for (int c : random.ints(first, last).distinct().limit(COURSES_PER_STUDENT).toArray()) {
+                    repo.registerStudentToCourse(student, String.format("CourseCode_F%d_%03d", f, c));
+                }
+                // a few electives from anywhere in the faculty tie its years together
+                if (s % ELECTIVE_EVERY == 0) {
+                    repo.registerStudentToCourse(student,
+                            String.format("CourseCode_F%d_%03d", f, random.nextInt(coursesPerFaculty)));
+                }
+            }
+        }
+
+        List<Slot> slots = new ArrayList<>();
+        for (int day = 1; day <= DAYS; day++) {
+            for (int i = 0; i < SLOT_TIMES.length; i++) {
+                slots.add(new Slot(day, i + 1, SLOT_TIMES[i]));
+            }
+        }
+        repo.setSlots(slots);
+        return repo;
+    }
+}
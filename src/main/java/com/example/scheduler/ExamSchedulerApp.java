@@ -40,6 +40,7 @@ import com.example.scheduler.view.ScheduleByRoomView;
 import com.example.scheduler.view.ScheduleByStudentView;
 import com.example.scheduler.view.ScheduleByDaySlotView;
 import com.example.scheduler.view.StudentScheduleView;
+import com.example.scheduler.view.SolverProgressDialog;
 
 public class ExamSchedulerApp extends Application {
 
@@ -87,19 +88,6 @@ public class ExamSchedulerApp extends Application {
         // Try to load sample data from the working directory (optional).
         tryAutoLoadDefaultSampleData();
 
-        // If we already have data, try to schedule once.
-        if (!repo.getCourses().isEmpty() && !repo.getClassrooms().isEmpty() && !repo.getSlots().isEmpty()) {
-            try {
-                scheduleController.generateSchedule();
-                this.schedule = scheduleController.getSchedule();
-                statusLabel.setText("Schedule generated from default data.");
-            } catch (RuntimeException ex) {
-                this.schedule = null;
-                showError("Scheduling Error",
-                        "No feasible schedule could be generated with current data\n" + ex.getMessage());
-            }
-        }
-
         TabPane tabPane = new TabPane();
         tabPane.getTabs().add(createDataManagementTab());
         tabPane.getTabs().add(createSlotConfigurationTab());
@@ -119,6 +107,13 @@ public class ExamSchedulerApp extends Application {
         primaryStage.setScene(scene);
         primaryStage.show();
 
+        // If we already have data, try to schedule once.
+        if (!repo.getCourses().isEmpty() && !repo.getClassrooms().isEmpty() && !repo.getSlots().isEmpty()) {
+            generateScheduleInBackground(() -> {
+                if (this.schedule != null)
+                    statusLabel.setText("Schedule generated from default data.");
+            });
+        }
     }
 
     private void tryAutoLoadDefaultSampleData() {
@@ -136,10 +131,9 @@ public class ExamSchedulerApp extends Application {
                 this.registrationsPath = a;
                 this.slotConfigPath = slots;
 
-                importService.importAll(s, c, r, a, slots);
+                importService.importAll(s, c, r, a, slots, new RepositorySnapshot(
+                        Paths.get(RepositorySnapshot.DEFAULT_FILE_NAME), List.of(s, c, r, a, slots)));
                 refreshAllDataControllers();
-                scheduleController.generateSchedule();
-                this.schedule = scheduleController.getSchedule();
             }
         } catch (IOException e) {
             showError("CSV Import Error",
@@ -233,23 +227,60 @@ public class ExamSchedulerApp extends Application {
             return;
         }
 
-        try {
-            scheduleController.generateSchedule();
-            this.schedule = scheduleController.getSchedule();
+        FeasibilityReport precheck = new FeasibilityAnalyzer(repo).analyze();
+        if (!precheck.isFeasible()) {
+            showError("Infeasible Data", "No schedule can satisfy the current data:\n\n" + precheck);
+            statusLabel.setText("Scheduling skipped: the data cannot be scheduled.");
+            return;
+        }
 
-            if (this.schedule != null) {
+        new SolverProgressDialog(primaryStage, "Scheduling").run(scheduleController::solve, result -> {
+            if (result != null) {
+                scheduleController.setSchedule(result.getSchedule());
+                this.schedule = scheduleController.getSchedule();
                 updateAllViews();
-                showInfo("Scheduled", "Exam schedule generated/regenerated successfully.");
-                statusLabel.setText("Schedule generated successfully.");
+                if (result.getRelaxations().isEmpty()) {
+                    String bound = "";
+                    if (result.getLowerBound() >= 0) {
+                        bound = result.getOptimalityGap() == 0 ? " (proven optimal)"
+                                : " (at most " + result.getOptimalityGap() + " above the optimum)";
+                    }
+                    showInfo("Scheduled", "Exam schedule generated/regenerated successfully.\n"
+                            + "Penalty score: " + result.getPenaltyScore() + bound);
+                    statusLabel.setText("Schedule generated successfully.");
+                } else {
+                    showInfo("Partial Schedule", "Scheduling was stopped before every exam was placed.\n"
+                            + result.getRelaxations().size() + " course(s) are not scheduled yet.\n\n"
+                            + "Run the scheduling again to complete it.");
+                }
             } else {
                 showError("Failed", "Could not generate a valid schedule with current constraints.");
                 statusLabel.setText("Schedule generation failed.");
             }
-        } catch (RuntimeException ex) {
+        }, ex -> {
             this.schedule = null;
+            scheduleController.setSchedule(null);
             updateAllViews();
             showError("Scheduling Error", "No feasible schedule could be generated\n" + ex.getMessage());
-        }
+        });
+    }
+
+    // Schedules the current data from scratch behind a progress window, like a re-run but without
+    // repairing the old schedule. onDone runs on the JavaFX thread once this.schedule is set; it may
+    // be null if there was not enough data.
+    private void generateScheduleInBackground(Runnable onDone) {
+        new SolverProgressDialog(primaryStage, "Scheduling").run(scheduleController::generate, result -> {
+            scheduleController.setSchedule(result == null ? null : result.getSchedule());
+            this.schedule = scheduleController.getSchedule();
+            updateAllViews();
+            onDone.run();
+        }, ex -> {
+            this.schedule = null;
+            scheduleController.setSchedule(null);
+            updateAllViews();
+            showError("Scheduling Error",
+                    "No feasible schedule could be generated with current data\n" + ex.getMessage());
+        });
     }
 
     private void handleImportAll() {
@@ -363,19 +394,17 @@ public class ExamSchedulerApp extends Application {
                 refreshAllDataControllers();
 
                 // Try scheduling immediately.
-                scheduleController.generateSchedule();
-                this.schedule = scheduleController.getSchedule();
-
-                updateAllViews();
-                if (this.schedule != null) {
-                    showInfo("Import & Scheduling", "CSV files imported and schedule generated successfully.");
-                } else {
-                    showInfo(
-                            "Import Completed",
-                            "CSV files have been imported successfully.\n\n" +
-                                    "If no schedule is visible, please use:\n" +
-                                    "Actions → Run / Re-run Scheduling");
-                }
+                generateScheduleInBackground(() -> {
+                    if (this.schedule != null) {
+                        showInfo("Import & Scheduling", "CSV files imported and schedule generated successfully.");
+                    } else {
+                        showInfo(
+                                "Import Completed",
+                                "CSV files have been imported successfully.\n\n" +
+                                        "If no schedule is visible, please use:\n" +
+                                        "Actions → Run / Re-run Scheduling");
+                    }
+                });
 
             } catch (Exception ex) {
                 this.schedule = null;
@@ -422,16 +451,14 @@ public class ExamSchedulerApp extends Application {
 
             // Slot config changed -> try to re-schedule if we have enough data.
             // 5. Generate Initial Schedule
-            scheduleController.generateSchedule();
-            this.schedule = scheduleController.getSchedule();
-
-            if (this.schedule != null) {
-                showInfo("Success", "Data loaded and schedule generated successfully.");
-            } else {
-                showInfo("Loaded", "Data loaded. Constraints may prevent full scheduling.");
-            }
-            updateAllViews();
-            showInfo("Slot Configuration", "Slot configuration imported successfully.");
+            generateScheduleInBackground(() -> {
+                if (this.schedule != null) {
+                    showInfo("Success", "Data loaded and schedule generated successfully.");
+                } else {
+                    showInfo("Loaded", "Data loaded. Constraints may prevent full scheduling.");
+                }
+                showInfo("Slot Configuration", "Slot configuration imported successfully.");
+            });
         } catch (Exception ex) {
             this.schedule = null;
             updateAllViews();
@@ -613,7 +640,7 @@ public class ExamSchedulerApp extends Application {
             this.schedule = newSchedule;
             scheduleController.setSchedule(newSchedule); // Sync controller
             updateAllViews();
-        }).createTab();
+        }, scheduleController::getSchedule).createTab();
     }
 
     private void showInfo(String title, String message) {
@@ -1,13 +1,22 @@
 package com.example.scheduler;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 
 import com.example.scheduler.model.DataRepository;
 import com.example.scheduler.model.Schedule;
+import com.example.scheduler.model.SchedulingResult;
 import com.example.scheduler.service.CsvExportService;
 import com.example.scheduler.service.CsvImportService;
+import com.example.scheduler.service.InfeasibleScheduleException;
+import com.example.scheduler.service.QualityReport;
+import com.example.scheduler.service.RepositorySnapshot;
 import com.example.scheduler.service.SchedulingEngine;
+import com.example.scheduler.service.SolverMonitor;
 import com.example.scheduler.service.StudentScheduleService;
 
 public class Main {
@@ -19,10 +28,14 @@ public class Main {
 
         try {
 
-            // CSV IMPORT
-            importService.importAll(Paths.get("sampleData_AllStudents.csv"), Paths.get("sampleData_AllCourses.csv"),
+            // CSV IMPORT (from the snapshot while the CSVs are unchanged)
+            List<Path> sources = List.of(Paths.get("sampleData_AllStudents.csv"), Paths.get("sampleData_AllCourses.csv"),
                     Paths.get("sampleData_AllClassroomsAndTheirCapacities.csv"),
                     Paths.get("sampleData_AllAttendanceLists.csv"), Paths.get("sampleData_slot_config.csv"));
+            RepositorySnapshot snapshot = new RepositorySnapshot(Paths.get(RepositorySnapshot.DEFAULT_FILE_NAME), sources);
+            if (importService.importAll(sources.get(0), sources.get(1), sources.get(2), sources.get(3), sources.get(4),
+                    snapshot))
+                System.out.println("Loaded from " + snapshot.getFile());
 
             System.out.println("Courses: " + repo.getCourses().size());
             System.out.println("Students: " + repo.getStudents().size());
@@ -34,17 +47,38 @@ public class Main {
 
             try {
 
-                Schedule schedule = engine.generateExamSchedule();
+                // Warm start from the last run's schedule if there is one, so small data changes
+                // only move the exams they affect
+                Schedule schedule;
+                Schedule seed = snapshot.loadSchedule();
+                Path previous = Paths.get("schedule_by_course.csv");
+                if (seed == null && Files.exists(previous))
+                    seed = importService.importSchedule(previous);
+                if (seed != null) {
+                    SchedulingResult result = engine.solveFrom(seed, new SolverMonitor());
+                    schedule = result.getSchedule();
+                    System.out.println("Kept " + engine.getKeptFromSeed() + " of " + seed.getAllExams().size()
+                            + " exams from the previous schedule.");
+                } else {
+                    schedule = engine.generateExamSchedule();
+                }
 
                 // EXPORT
+                // all four views in one pass; --zip also packs them into one archive
                 CsvExportService exportService = new CsvExportService(repo);
-                exportService.exportByCourse(schedule, Paths.get("schedule_by_course.csv"));
-                exportService.exportByRoom(schedule, Paths.get("schedule_by_room.csv"));
-                exportService.exportByStudent(schedule, Paths.get("schedule_by_student.csv"));
-                exportService.exportByDaySlot(schedule, Paths.get("schedule_by_day_slot.csv"));
+                System.out.println(exportService.exportAll(schedule, Paths.get(".")));
+                if (Arrays.asList(args).contains("--zip"))
+                    System.out.println(exportService.exportAllZipped(schedule, Paths.get("schedules.zip")));
 
                 System.out.println("Export completed.");
 
+                try {
+                    snapshot.write(repo, schedule);
+                } catch (IOException e) {
+                    System.out.println("Could not write " + snapshot.getFile() + ": " + e.getMessage());
+                }
+                System.out.println(QualityReport.of(schedule, repo));
+
                 StudentScheduleService studentScheduleService = new StudentScheduleService(repo);
 
                 for (String studentId : repo.getStudents().keySet()) {
@@ -55,6 +89,8 @@ public class Main {
             } catch (RuntimeException e) {
 
                 System.out.println("No feasible schedule found. Please adjust constraints or slots.");
+                if (e instanceof InfeasibleScheduleException)
+                    System.out.println(e.getMessage());
             }
         } catch (IOException e) {
             throw new RuntimeException("Error while importing/exporting CSV data", e);
@@ -30,8 +30,7 @@ public class CourseController {
     public void refreshList() {
         courseList.clear();
         for (Course c : repo.getCourses().values()) {
-            // We need student count. Course object has list of studentIds.
-            int count = c.getStudentIds().size();
+            int count = c.getStudentCount();
             courseList.add(new CourseRow(c.getCourseCode(), count));
         }
         courseList.sort(Comparator.comparing(CourseRow::getCourseCode));
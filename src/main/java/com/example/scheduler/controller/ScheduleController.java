@@ -2,22 +2,27 @@ package com.example.scheduler.controller;
 
 import com.example.scheduler.model.*;
 import com.example.scheduler.service.CsvExportService;
+import com.example.scheduler.service.ConflictGraph;
 import com.example.scheduler.service.SchedulingEngine;
+import com.example.scheduler.service.SlotHeatmap;
+import com.example.scheduler.service.SolverMonitor;
 
 import javafx.scene.control.Alert;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
-import java.util.HashSet;
-
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
 
 public class ScheduleController {
 
     private final DataRepository repo;
     private final CsvExportService exportService;
     private Schedule schedule;
+    private ConstraintIndex constraintIndex;
+    private SlotHeatmap heatmap;
+    private long trackedModificationCount;
 
     public ScheduleController(DataRepository repo) {
         this.repo = repo;
@@ -28,16 +33,49 @@ public class ScheduleController {
         return schedule;
     }
 
-    public void generateSchedule() {
-        if (!repo.getCourses().isEmpty() && !repo.getClassrooms().isEmpty() && !repo.getSlots().isEmpty()) {
-            this.schedule = new SchedulingEngine(repo).generateExamSchedule();
-        } else {
-            this.schedule = null;
-        }
+    // Solves the current data from scratch without touching the current schedule, so it can run
+    // off the UI thread. Returns null when there is not enough data to schedule.
+    public SchedulingResult generate(SolverMonitor monitor) {
+        if (repo.getCourses().isEmpty() || repo.getClassrooms().isEmpty() || repo.getSlots().isEmpty())
+            return null;
+        return new SchedulingEngine(repo).solve(monitor);
+    }
+
+    // Runs the solver without touching the current schedule, so it can run off the UI thread.
+    // If the data changed since the current schedule was made, that schedule is repaired instead.
+    // Returns null when there is not enough data to schedule.
+    public SchedulingResult solve(SolverMonitor monitor) {
+        if (repo.getCourses().isEmpty() || repo.getClassrooms().isEmpty() || repo.getSlots().isEmpty())
+            return null;
+        return new SchedulingEngine(repo).repairOrSolve(schedule, repo.getPendingChanges(), monitor);
     }
 
     public void setSchedule(Schedule schedule) {
+        if (this.schedule != null && constraintIndex != null) {
+            this.schedule.removeListener(constraintIndex);
+            this.schedule.removeListener(heatmap);
+        }
         this.schedule = schedule;
+        this.constraintIndex = null;
+        this.heatmap = null;
+        repo.clearPendingChanges();
+    }
+
+    // Rule lookup tables of the current schedule, rebuilt when registrations or slots have changed.
+    // Between rebuilds updateExamSlot keeps them current through the schedule listener.
+    private ConstraintIndex getConstraintIndex() {
+        if (constraintIndex != null && trackedModificationCount == repo.getModificationCount())
+            return constraintIndex;
+
+        if (constraintIndex != null) {
+            schedule.removeListener(constraintIndex);
+            schedule.removeListener(heatmap);
+        }
+        constraintIndex = ConstraintIndex.attach(schedule, repo.getStudentIndex().size(), repo.getSlots());
+        heatmap = SlotHeatmap.attach(schedule, repo.getSlots(), constraintIndex,
+                new ConflictGraph(repo.getCourses().values()));
+        trackedModificationCount = repo.getModificationCount();
+        return constraintIndex;
     }
 
     public Slot findSlot(int day, int index) {
@@ -89,96 +127,40 @@ public class ScheduleController {
         if (exam == null || newSlot == null)
             return false;
         // Already checking constraints in the if slots
-        exam.setSlot(newSlot);
+        if (schedule != null) {
+            schedule.moveExam(exam, newSlot);
+        } else {
+            exam.setSlot(newSlot);
+        }
         return true;
     }
 
-    public boolean wouldCauseSameSlotStudentConflict(Exam movingExam, Slot newSlot) {
-        Set<String> movingStudents = new HashSet<>(movingExam.getCourse().getStudentIds());
-
-        for (Exam other : schedule.getAllExams()) {
-            if (other == movingExam)
-                continue;
+    // Feasibility and penalty change of moving the exam into each slot of the configuration.
+    public List<SlotOption> evaluateSlots(Exam exam) {
+        getConstraintIndex();
+        return heatmap.evaluate(exam);
+    }
 
-            if (other.getSlot().getDay() == newSlot.getDay()
-                    && other.getSlot().getIndex() == newSlot.getIndex()) {
+    // The same for every exam; cached, and only rows touched by edits since the last call are recomputed.
+    public Map<Exam, List<SlotOption>> getSlotMatrix() {
+        getConstraintIndex();
+        return heatmap.getMatrix();
+    }
 
-                for (String s : movingStudents) {
-                    if (other.getCourse().getStudentIds().contains(s)) {
-                        return true; // Conflict
-                    }
-                }
-            }
-        }
-        return false;
+    public boolean wouldCauseSameSlotStudentConflict(Exam movingExam, Slot newSlot) {
+        return getConstraintIndex().hasStudentClash(movingExam, newSlot);
     }
 
     public boolean wouldCauseRoomConflict(Exam movingExam, Slot newSlot) {
-        Set<String> movingRooms = new HashSet<>();
-        for (Classroom cr : movingExam.getAssignedRooms()) {
-            movingRooms.add(cr.getRoomId());
-        }
-
-        for (Exam other : schedule.getAllExams()) {
-            if (other == movingExam)
-                continue;
-
-            if (other.getSlot().getDay() == newSlot.getDay()
-                    && other.getSlot().getIndex() == newSlot.getIndex()) {
-
-                for (Classroom cr : other.getAssignedRooms()) {
-                    if (movingRooms.contains(cr.getRoomId())) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return getConstraintIndex().hasRoomClash(movingExam, newSlot);
     }
 
     public boolean wouldViolateConsecutiveConstraint(Exam movingExam, Slot newSlot) {
-        int day = newSlot.getDay();
-        int idx = newSlot.getIndex();
-        int prev = idx - 1;
-        int next = idx + 1;
-
-        for (String studentId : movingExam.getCourse().getStudentIds()) {
-            for (Exam other : schedule.getAllExams()) {
-                if (other == movingExam)
-                    continue;
-                if (!other.getCourse().getStudentIds().contains(studentId))
-                    continue;
-                if (other.getSlot().getDay() != day)
-                    continue;
-
-                int oIdx = other.getSlot().getIndex();
-                if (oIdx == prev || oIdx == next) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return getConstraintIndex().hasConsecutiveClash(movingExam, newSlot);
     }
 
     public boolean wouldViolateMaxTwoPerDayConstraint(Exam movingExam, Slot newSlot) {
-        int day = newSlot.getDay();
-
-        for (String studentId : movingExam.getCourse().getStudentIds()) {
-            int count = 0;
-            for (Exam other : schedule.getAllExams()) {
-                if (other == movingExam)
-                    continue;
-                if (!other.getCourse().getStudentIds().contains(studentId))
-                    continue;
-                if (other.getSlot().getDay() == day) {
-                    count++;
-                    if (count >= 2) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return getConstraintIndex().wouldExceedPerDay(movingExam, newSlot.getDay(), 2);
     }
 
     // --- Helpers ---
@@ -2,10 +2,14 @@ package com.example.scheduler.controller;
 
 import com.example.scheduler.model.DataRepository;
 import com.example.scheduler.model.Schedule;
+import com.example.scheduler.model.SchedulingResult;
 import com.example.scheduler.model.Slot;
 import com.example.scheduler.model.SlotConfigurationRow;
+import com.example.scheduler.service.MinimumDaysSearch;
 import com.example.scheduler.service.SchedulingEngine;
+import com.example.scheduler.service.SchedulingOptions;
 import com.example.scheduler.service.SlotGenerator;
+import com.example.scheduler.service.SolverMonitor;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
@@ -72,22 +76,19 @@ public class SlotController {
     }
 
     public Schedule saveConfiguration(File file, int numDays) throws Exception {
-        if (slotList.isEmpty()) {
-            throw new Exception("At least one slot must be defined.");
-        }
+        return saveConfiguration(file, numDays, null);
+    }
 
-        List<SlotConfigurationRow> rows = new ArrayList<>(slotList);
-        rows.sort(Comparator.comparingInt(SlotConfigurationRow::getSlotIndex));
+    // Saves the slots and repairs the previous schedule for them (solves from scratch if there is none).
+    public Schedule saveConfiguration(File file, int numDays, Schedule previous) throws Exception {
+        saveSlots(file, numDays);
+        SchedulingResult result = reschedule(previous, new SolverMonitor());
+        return result == null ? null : result.getSchedule();
+    }
 
-        List<String> timeRanges = new ArrayList<>();
-        for (SlotConfigurationRow row : rows) {
-            String startTime = row.getStartTime().trim();
-            String endTime = row.getEndTime().trim();
-            if (startTime.isEmpty() || endTime.isEmpty()) {
-                throw new Exception("Start and end times must be provided for all slots.");
-            }
-            timeRanges.add(startTime + "-" + endTime);
-        }
+    // Applies the slot rows to the repository and writes them to the file (if given).
+    public void saveSlots(File file, int numDays) throws Exception {
+        List<String> timeRanges = timeRanges();
 
         // Update Repo
         List<Slot> newSlots = SlotGenerator.generateSlots(numDays, timeRanges);
@@ -104,10 +105,46 @@ public class SlotController {
                 bw.newLine();
             }
         }
+    }
+
+    // A search for the fewest days the slot rows of one day can be scheduled in (see MinimumDaysSearch).
+    public MinimumDaysSearch createMinimumDaysSearch() throws Exception {
+        if (repo.getCourses().isEmpty() || repo.getClassrooms().isEmpty()) {
+            throw new Exception("Courses and classrooms must be loaded first.");
+        }
+        return new MinimumDaysSearch(repo, timeRanges(), new SchedulingOptions());
+    }
+
+    // The time ranges of the slot rows, by slot index.
+    private List<String> timeRanges() throws Exception {
+        if (slotList.isEmpty()) {
+            throw new Exception("At least one slot must be defined.");
+        }
+
+        List<SlotConfigurationRow> rows = new ArrayList<>(slotList);
+        rows.sort(Comparator.comparingInt(SlotConfigurationRow::getSlotIndex));
+
+        List<String> timeRanges = new ArrayList<>();
+        for (SlotConfigurationRow row : rows) {
+            String startTime = row.getStartTime().trim();
+            String endTime = row.getEndTime().trim();
+            if (startTime.isEmpty() || endTime.isEmpty()) {
+                throw new Exception("Start and end times must be provided for all slots.");
+            }
+            timeRanges.add(startTime + "-" + endTime);
+        }
+        return timeRanges;
+    }
+
+    // Schedules again for the saved slots; null when there is not enough data.
+    public SchedulingResult reschedule(SolverMonitor monitor) {
+        return reschedule(null, monitor);
+    }
 
-        // Reschedule
+    // Keeps as much of the previous schedule as the new slots allow.
+    public SchedulingResult reschedule(Schedule previous, SolverMonitor monitor) {
         if (!repo.getCourses().isEmpty() && !repo.getClassrooms().isEmpty() && !repo.getSlots().isEmpty()) {
-            return new SchedulingEngine(repo).generateExamSchedule();
+            return new SchedulingEngine(repo).repairOrSolve(previous, repo.getPendingChanges(), monitor);
         }
         return null;
     }
@@ -0,0 +1,190 @@
+package com.example.scheduler.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Streams the attendance-list format, a "CourseCode_..." line followed by a line like
+// ['Std_ID_170', 'Std_ID_077', ..., 'Std_ID_168'], through one fixed CharBuffer. Student IDs go
+// from the buffer straight into the StudentIndex, so no String is made per token or per line and a
+// list line of any length needs only the buffer, one token and the course's ordinals.
+// Same reading as the line-based parser it replaces: the first non-empty line after a course line
+// is its list, [ ] ' " are dropped, IDs are split on commas and trimmed, other lines are skipped.
+public class AttendanceListReader {
+
+    private static final String COURSE_PREFIX = "CourseCode_";
+    private static final int BUFFER_CHARS = 1 << 16;
+
+    private enum Mode {
+        LINE_START, HEADER, LIST, SKIP
+    }
+
+    private final StudentIndex studentIndex;
+    private Map<String, Course> courses;
+
+    private final CharBuffer buffer = CharBuffer.allocate(BUFFER_CHARS);
+    private final StringBuilder header = new StringBuilder();
+    private char[] token = new char[32];
+    private int tokenLength;
+    private int[] ordinals = new int[256];
+    private int ordinalCount;
+
+    private Mode mode = Mode.LINE_START;
+    private String pendingCourse;
+
+    public AttendanceListReader(StudentIndex studentIndex) {
+        this.studentIndex = studentIndex;
+    }
+
+    // Courses by code, each holding the students of its list.
+    public Map<String, Course> read(Reader in) throws IOException {
+        start();
+        while (in.read(buffer) >= 0) {
+            drain();
+        }
+        return finish();
+    }
+
+    // Same, for UTF-8 bytes such as one chunk of a CSV file read into memory. The bytes are decoded
+    // through the same fixed buffer, so the whole range is never held as chars.
+    public Map<String, Course> read(ByteBuffer bytes) throws CharacterCodingException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        start();
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, buffer, true);
+            if (result.isError())
+                result.throwException();
+            drain();
+        } while (result.isOverflow());
+        while (decoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+        drain();
+        return finish();
+    }
+
+    private void start() {
+        courses = new HashMap<>();
+        mode = Mode.LINE_START;
+        pendingCourse = null;
+    }
+
+    private void drain() {
+        char[] chars = buffer.array();
+        int end = buffer.position();
+        for (int i = 0; i < end; i++) {
+            accept(chars[i]);
+        }
+        buffer.clear();
+    }
+
+    private Map<String, Course> finish() {
+        endLine(); // the last line may have no line break
+        pendingCourse = null;
+        return courses;
+    }
+
+    private void accept(char c) {
+        if (c == '\n' || c == '\r') {
+            endLine();
+            return;
+        }
+        switch (mode) {
+            case LINE_START:
+                if (c <= ' ')
+                    return;
+                if (pendingCourse != null) {
+                    mode = Mode.LIST;
+                    ordinalCount = 0;
+                    tokenLength = 0;
+                    list(c);
+                } else {
+                    mode = Mode.HEADER;
+                    header.setLength(0);
+                    header(c);
+                }
+                return;
+            case HEADER:
+                header(c);
+                return;
+            case LIST:
+                list(c);
+                return;
+            default:
+                // SKIP
+        }
+    }
+
+    // Keeps the line only while it can still be a course line.
+    private void header(char c) {
+        int at = header.length();
+        if (at < COURSE_PREFIX.length() && c != COURSE_PREFIX.charAt(at)) {
+            mode = Mode.SKIP;
+            return;
+        }
+        header.append(c);
+    }
+
+    private void list(char c) {
+        switch (c) {
+            case '[':
+            case ']':
+            case '\'':
+            case '"':
+                return;
+            case ',':
+                endToken();
+                return;
+            default:
+                if (tokenLength == token.length)
+                    token = Arrays.copyOf(token, tokenLength * 2);
+                token[tokenLength++] = c;
+        }
+    }
+
+    private void endToken() {
+        int start = 0;
+        int end = tokenLength;
+        while (start < end && token[start] <= ' ') {
+            start++;
+        }
+        while (end > start && token[end - 1] <= ' ') {
+            end--;
+        }
+        if (end > start) {
+            if (ordinalCount == ordinals.length)
+                ordinals = Arrays.copyOf(ordinals, ordinalCount * 2);
+            ordinals[ordinalCount++] = studentIndex.intern(token, start, end - start);
+        }
+        tokenLength = 0;
+    }
+
+    private void endLine() {
+        switch (mode) {
+            case HEADER:
+                String line = header.toString().trim();
+                if (line.startsWith(COURSE_PREFIX))
+                    pendingCourse = line;
+                break;
+            case LIST:
+                endToken();
+                Course course = courses.computeIfAbsent(pendingCourse, code -> new Course(code, studentIndex));
+                course.addStudents(ordinals, ordinalCount);
+                ordinalCount = 0;
+                pendingCourse = null;
+                break;
+            default:
+                break;
+        }
+        mode = Mode.LINE_START;
+    }
+}
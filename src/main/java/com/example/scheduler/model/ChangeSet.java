@@ -0,0 +1,73 @@
+package com.example.scheduler.model;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+// What changed in the data since the current schedule was made: courses whose registrations
+// changed (or that were added or removed), classrooms whose capacity changed, and whether the
+// slot configuration or the whole data set was replaced. Used to repair a schedule instead of
+// solving it again.
+public class ChangeSet {
+
+    private final Set<String> courses = new HashSet<>();
+    private final Set<String> rooms = new HashSet<>();
+    private boolean slotsChanged;
+    private boolean reloaded;
+
+    public void courseChanged(String courseCode) {
+        courses.add(courseCode);
+    }
+
+    public void roomChanged(String roomId) {
+        rooms.add(roomId);
+    }
+
+    public void slotsChanged() {
+        slotsChanged = true;
+    }
+
+    public void reloaded() {
+        reloaded = true;
+    }
+
+    public Set<String> getCourses() {
+        return Collections.unmodifiableSet(courses);
+    }
+
+    public Set<String> getRooms() {
+        return Collections.unmodifiableSet(rooms);
+    }
+
+    public boolean isSlotsChanged() {
+        return slotsChanged;
+    }
+
+    // The data was imported again, so the old schedule's courses may not exist any more.
+    public boolean isReloaded() {
+        return reloaded;
+    }
+
+    public boolean isEmpty() {
+        return courses.isEmpty() && rooms.isEmpty() && !slotsChanged && !reloaded;
+    }
+
+    public boolean touches(Exam exam) {
+        if (courses.contains(exam.getCourse().getCourseCode()))
+            return true;
+        if (exam.getAssignedRooms() != null) {
+            for (Classroom room : exam.getAssignedRooms()) {
+                if (rooms.contains(room.getRoomId()))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        courses.clear();
+        rooms.clear();
+        slotsChanged = false;
+        reloaded = false;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.scheduler.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Live lookup tables over a Schedule for checking manual edits: the exams and the room use of
+// each slot, plus the per-student slot bitmasks of a StudentOccupancy. Attached as a listener, so a
+// move costs O(enrollment) to record and each rule check only looks at the moving exam's own
+// students and rooms. Multiplicities are kept, so a schedule that already breaks a rule stays consistent.
+public class ConstraintIndex implements ScheduleListener {
+
+    private final Map<Slot, Integer> slotOrdinals = new HashMap<>();
+    private final List<List<Exam>> examsBySlot = new ArrayList<>();
+    private final List<Map<String, Integer>> roomUseBySlot = new ArrayList<>();
+    private final StudentOccupancy occupancy;
+    private final StudentLoadTracker loads;
+
+    public ConstraintIndex(int studentCount, List<Slot> slots) {
+        int days = 0;
+        int slotsPerDay = 0;
+        for (Slot s : slots) {
+            days = Math.max(days, s.getDay());
+            slotsPerDay = Math.max(slotsPerDay, s.getIndex());
+        }
+        this.occupancy = new StudentOccupancy(studentCount, days, slotsPerDay);
+        this.loads = new StudentLoadTracker(studentCount, days);
+    }
+
+    // Creates an index for the slot configuration, filled from the current exams and registered on the schedule.
+    public static ConstraintIndex attach(Schedule schedule, int studentCount, List<Slot> slots) {
+        ConstraintIndex index = new ConstraintIndex(studentCount, slots);
+        for (Exam exam : schedule.getAllExams()) {
+            index.examAdded(exam);
+        }
+        schedule.addListener(index);
+        return index;
+    }
+
+    public StudentLoadTracker getLoadTracker() {
+        return loads;
+    }
+
+    public StudentOccupancy getOccupancy() {
+        return occupancy;
+    }
+
+    public List<Exam> getExamsInSlot(Slot slot) {
+        int s = ordinalOf(slot);
+        return s < 0 ? Collections.emptyList() : Collections.unmodifiableList(examsBySlot.get(s));
+    }
+
+    // Number of exams the student has in the slot.
+    public int getStudentCount(int student, Slot slot) {
+        return occupancy.countAt(student, occupancy.position(slot));
+    }
+
+    // Some other exam in the slot shares a student with the moving exam.
+    public boolean hasStudentClash(Exam movingExam, Slot slot) {
+        return occupancy.hasClash(movingExam.getCourse(), occupancy.position(slot),
+                occupancy.position(movingExam.getSlot()));
+    }
+
+    // Some other exam directly before or after the slot on the same day shares a student with the moving exam.
+    public boolean hasConsecutiveClash(Exam movingExam, Slot slot) {
+        return occupancy.hasConsecutive(movingExam.getCourse(), occupancy.position(slot),
+                occupancy.position(movingExam.getSlot()));
+    }
+
+    // Some other exam in the slot uses one of the moving exam's rooms.
+    public boolean hasRoomClash(Exam movingExam, Slot slot) {
+        int s = ordinalOf(slot);
+        if (s < 0 || movingExam.getAssignedRooms() == null)
+            return false;
+        boolean alreadyThere = slot.equals(movingExam.getSlot());
+        Map<String, Integer> roomUse = roomUseBySlot.get(s);
+        for (Classroom room : movingExam.getAssignedRooms()) {
+            int uses = roomUse.getOrDefault(room.getRoomId(), 0);
+            if (alreadyThere)
+                uses--;
+            if (uses > 0)
+                return true;
+        }
+        return false;
+    }
+
+    // hasStudentClash for every slot of the list at once, from one OR over the students' bitmasks.
+    public boolean[] studentClashes(Exam movingExam, List<Slot> slots) {
+        long[] busy = occupancy.busyPositions(movingExam.getCourse(), occupancy.position(movingExam.getSlot()));
+        boolean[] clash = new boolean[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            clash[i] = StudentOccupancy.isSet(busy, occupancy.position(slots.get(i)));
+        }
+        return clash;
+    }
+
+    public boolean wouldExceedPerDay(Exam movingExam, int day, int maxPerDay) {
+        return loads.wouldExceedAfterMove(movingExam, day, maxPerDay);
+    }
+
+    @Override
+    public void examAdded(Exam exam) {
+        update(exam, exam.getSlot(), 1);
+        occupancy.examAdded(exam);
+        loads.examAdded(exam);
+    }
+
+    @Override
+    public void examRemoved(Exam exam) {
+        update(exam, exam.getSlot(), -1);
+        occupancy.examRemoved(exam);
+        loads.examRemoved(exam);
+    }
+
+    @Override
+    public void examMoved(Exam exam, Slot oldSlot) {
+        update(exam, oldSlot, -1);
+        update(exam, exam.getSlot(), 1);
+        occupancy.examMoved(exam, oldSlot);
+        loads.examMoved(exam, oldSlot);
+    }
+
+    private int ordinalOf(Slot slot) {
+        Integer s = slot == null ? null : slotOrdinals.get(slot);
+        return s == null ? -1 : s;
+    }
+
+    private int ordinalFor(Slot slot) {
+        Integer s = slotOrdinals.get(slot);
+        if (s != null)
+            return s;
+        slotOrdinals.put(slot, examsBySlot.size());
+        examsBySlot.add(new ArrayList<>());
+        roomUseBySlot.add(new HashMap<>());
+        return examsBySlot.size() - 1;
+    }
+
+    private void update(Exam exam, Slot slot, int delta) {
+        if (slot == null)
+            return;
+        int s = ordinalFor(slot);
+        if (delta > 0)
+            examsBySlot.get(s).add(exam);
+        else
+            examsBySlot.get(s).remove(exam);
+
+        if (exam.getAssignedRooms() != null) {
+            Map<String, Integer> roomUse = roomUseBySlot.get(s);
+            for (Classroom room : exam.getAssignedRooms()) {
+                roomUse.merge(room.getRoomId(), delta, Integer::sum);
+            }
+        }
+    }
+}
@@ -1,31 +1,210 @@
 package com.example.scheduler.model;
 
-import java.util.ArrayList;
-
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Course {
+    private static final int[] NO_STUDENTS = new int[0];
+
     private String courseCode;
-    private List<String> studentIds = new ArrayList<>();
+    private final StudentIndex studentIndex;
+
+    // Enrollment as sorted, duplicate-free student ordinals; only the first studentCount entries are used.
+    private int[] studentOrdinals = NO_STUDENTS;
+    private int studentCount;
+    // Exactly studentCount long (the array above when it has no spare room), set by the first
+    // getStudentOrdinals after a change. Solvers call that from several threads, so the getter
+    // publishes through this volatile instead of writing studentOrdinals back.
+    private volatile int[] trimmedOrdinals;
 
-    public Course(String courseCode) {
+    private final List<String> studentIdView = new StudentIdView();
+
+    public Course(String courseCode, StudentIndex studentIndex) {
         this.courseCode = courseCode;
+        this.studentIndex = studentIndex;
     }
 
-    public void addStudent(String studentId) {
-        studentIds.add(studentId);
+    // Returns false if the student is already registered to this course.
+    public boolean addStudent(String studentId) {
+        return addStudent(studentIndex.intern(studentId));
+    }
+
+    public boolean addStudent(int ordinal) {
+        trimmedOrdinals = null;
+        // Fast path: appending in ascending order
+        if (studentCount == 0 || studentOrdinals[studentCount - 1] < ordinal) {
+            ensureCapacity(studentCount + 1);
+            studentOrdinals[studentCount++] = ordinal;
+            return true;
+        }
+
+        int pos = Arrays.binarySearch(studentOrdinals, 0, studentCount, ordinal);
+        if (pos >= 0)
+            return false;
+
+        int insertAt = -pos - 1;
+        ensureCapacity(studentCount + 1);
+        System.arraycopy(studentOrdinals, insertAt, studentOrdinals, insertAt + 1, studentCount - insertAt);
+        studentOrdinals[insertAt] = ordinal;
+        studentCount++;
+        return true;
+    }
+
+    // Adds the first count ordinals of the array in one sort and merge instead of one insert each.
+    // The array is sorted in place. Returns how many students were new to the course.
+    public int addStudents(int[] ordinals, int count) {
+        if (count <= 0)
+            return 0;
+        trimmedOrdinals = null;
+        Arrays.sort(ordinals, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || ordinals[i] != ordinals[unique - 1])
+                ordinals[unique++] = ordinals[i];
+        }
+
+        if (studentCount == 0 || studentOrdinals[studentCount - 1] < ordinals[0]) {
+            ensureCapacity(studentCount + unique);
+            System.arraycopy(ordinals, 0, studentOrdinals, studentCount, unique);
+            studentCount += unique;
+            return unique;
+        }
+
+        int[] merged = new int[studentCount + unique];
+        int i = 0, j = 0, n = 0;
+        while (i < studentCount && j < unique) {
+            if (studentOrdinals[i] < ordinals[j]) {
+                merged[n++] = studentOrdinals[i++];
+            } else if (studentOrdinals[i] > ordinals[j]) {
+                merged[n++] = ordinals[j++];
+            } else {
+                merged[n++] = studentOrdinals[i++];
+                j++;
+            }
+        }
+        while (i < studentCount) {
+            merged[n++] = studentOrdinals[i++];
+        }
+        while (j < unique) {
+            merged[n++] = ordinals[j++];
+        }
+        int added = n - studentCount;
+        studentOrdinals = merged;
+        studentCount = n;
+        return added;
+    }
+
+    public boolean removeStudent(String studentId) {
+        int ordinal = studentIndex.indexOf(studentId);
+        if (ordinal < 0)
+            return false;
+
+        int pos = Arrays.binarySearch(studentOrdinals, 0, studentCount, ordinal);
+        if (pos < 0)
+            return false;
+
+        trimmedOrdinals = null;
+        System.arraycopy(studentOrdinals, pos + 1, studentOrdinals, pos, studentCount - pos - 1);
+        studentCount--;
+        return true;
+    }
+
+    public boolean containsStudent(String studentId) {
+        int ordinal = studentIndex.indexOf(studentId);
+        return ordinal >= 0 && containsStudent(ordinal);
+    }
+
+    public boolean containsStudent(int ordinal) {
+        return Arrays.binarySearch(studentOrdinals, 0, studentCount, ordinal) >= 0;
+    }
+
+    // Number of students registered to both courses (merge of the two sorted arrays).
+    public int countSharedStudents(Course other) {
+        int[] a = studentOrdinals;
+        int[] b = other.studentOrdinals;
+        int i = 0, j = 0, shared = 0;
+        while (i < studentCount && j < other.studentCount) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                shared++;
+                i++;
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    public boolean sharesStudentWith(Course other) {
+        int[] a = studentOrdinals;
+        int[] b = other.studentOrdinals;
+        int i = 0, j = 0;
+        while (i < studentCount && j < other.studentCount) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                return true;
+            }
+        }
+        return false;
     }
 
     public String getCourseCode() {
         return courseCode;
     }
 
+    public StudentIndex getStudentIndex() {
+        return studentIndex;
+    }
+
+    // Read-only String view over the enrollment, in ordinal order.
     public List<String> getStudentIds() {
-        return studentIds;
+        return studentIdView;
+    }
+
+    // Sorted student ordinals; the returned array must not be modified.
+    public int[] getStudentOrdinals() {
+        int[] trimmed = trimmedOrdinals;
+        if (trimmed == null) {
+            trimmed = studentOrdinals.length == studentCount ? studentOrdinals
+                    : Arrays.copyOf(studentOrdinals, studentCount);
+            trimmedOrdinals = trimmed;
+        }
+        return trimmed;
     }
 
     public int getStudentCount() {
-        return studentIds.size();
+        return studentCount;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > studentOrdinals.length) {
+            int newLength = Math.max(needed, Math.max(8, studentOrdinals.length + (studentOrdinals.length >> 1)));
+            studentOrdinals = Arrays.copyOf(studentOrdinals, newLength);
+        }
     }
 
+    private class StudentIdView extends AbstractList<String> {
+        @Override
+        public String get(int i) {
+            if (i < 0 || i >= studentCount)
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + studentCount);
+            return studentIndex.idOf(studentOrdinals[i]);
+        }
+
+        @Override
+        public int size() {
+            return studentCount;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return (o instanceof String) && containsStudent((String) o);
+        }
+    }
 }
@@ -14,6 +14,12 @@ public class DataRepository {
     private Map<String, Course> courses = new HashMap<>();
     private List<Classroom> classrooms = new ArrayList<>();
     private List<Slot> slots = new ArrayList<>();
+    private StudentIndex studentIndex = new StudentIndex();
+
+    // Incremented on every change to the data, so derived indexes know when to rebuild.
+    private long modificationCount;
+    // What changed since the current schedule was made
+    private final ChangeSet pendingChanges = new ChangeSet();
 
     public List<Slot> getSlots() {
         return slots;
@@ -21,44 +27,110 @@ public class DataRepository {
 
     public void setSlots(List<Slot> slots) {
         this.slots = slots;
+        modificationCount++;
+        pendingChanges.slotsChanged();
+    }
+
+    public long getModificationCount() {
+        return modificationCount;
+    }
+
+    public ChangeSet getPendingChanges() {
+        return pendingChanges;
+    }
+
+    // Called once a schedule matching the current data has been made.
+    public void clearPendingChanges() {
+        pendingChanges.clear();
     }
 
     public void loadAll(Path studentsCSV, Path coursesCSV,
             Path classroomsCSV, Path registrationsCSV) throws IOException {
 
+        List<String> courseCodes = new ArrayList<>();
+        for (Course c : loadCourses(coursesCSV)) {
+            courseCodes.add(c.getCourseCode());
+        }
+
+        replaceData(loadStudents(studentsCSV), courseCodes, loadClassrooms(classroomsCSV),
+                List.of(loadCourseRegistrations(registrationsCSV)));
+    }
+
+    // Replaces all data with what was read from the files, in one step, so a failed read leaves
+    // the old data in place. The registrations come in parts (chunks of the attendance file, in
+    // file order), each parsed against its own StudentIndex; their ordinals are remapped here.
+    // Student ordinals follow the students file, then first appearance in the registrations.
+    public void replaceData(List<Student> studentList, List<String> courseCodes, List<Classroom> classroomList,
+            List<Map<String, Course>> registrationParts) {
+
         // Clear them first
+        modificationCount++;
+        pendingChanges.reloaded();
         students.clear();
         courses.clear();
-        classrooms.clear();
+        studentIndex = new StudentIndex();
 
-        // Students
-        for (Student s : loadStudents(studentsCSV)) {
+        // Students (ordinals follow the order of the students file)
+        for (Student s : studentList) {
             students.put(s.getStudentId(), s);
+            studentIndex.intern(s.getStudentId());
         }
 
         // Courses
-        for (Course c : loadCourses(coursesCSV)) {
-            courses.put(c.getCourseCode(), c);
+        for (String code : courseCodes) {
+            courses.put(code, new Course(code, studentIndex));
         }
 
         // Classrooms
-        classrooms = loadClassrooms(classroomsCSV);
+        classrooms = new ArrayList<>(classroomList);
 
         // Registrations (in sampleData_AllAttendanceLists format)
-        Map<String, Course> regMap = loadCourseRegistrations(registrationsCSV);
-
         // FR3
         // If there are courses that are registered but not in CSV,we add.
-        for (String courseCode : regMap.keySet()) {
-            courses.putIfAbsent(courseCode, new Course(courseCode));
-            Course target = courses.get(courseCode);
+        for (Map<String, Course> part : registrationParts) {
+            StudentIndex partIndex = null;
+            int[] toGlobal = null;
+            for (Course registered : part.values()) {
+                if (registered.getStudentIndex() != partIndex) {
+                    partIndex = registered.getStudentIndex();
+                    toGlobal = new int[partIndex.size()];
+                    for (int i = 0; i < toGlobal.length; i++) {
+                        toGlobal[i] = studentIndex.intern(partIndex.idOf(i));
+                    }
+                }
 
-            for (String stdId : regMap.get(courseCode).getStudentIds()) {
-                target.addStudent(stdId);
+                Course target = courses.computeIfAbsent(registered.getCourseCode(),
+                        code -> new Course(code, studentIndex));
+                int[] ordinals = registered.getStudentOrdinals();
+                int count = registered.getStudentCount();
+                int[] mapped = new int[count];
+                for (int i = 0; i < count; i++) {
+                    mapped[i] = toGlobal[ordinals[i]];
+                }
+                target.addStudents(mapped, count);
             }
         }
     }
 
+    // Installs data decoded from a snapshot as it is; the courses must use the given index, whose
+    // ordinals are kept.
+    public void restore(StudentIndex index, Collection<Student> studentList, Collection<Course> courseList,
+            List<Classroom> classroomList, List<Slot> slotList) {
+        modificationCount++;
+        pendingChanges.reloaded();
+        students.clear();
+        courses.clear();
+        studentIndex = index;
+        for (Student s : studentList) {
+            students.put(s.getStudentId(), s);
+        }
+        for (Course c : courseList) {
+            courses.put(c.getCourseCode(), c);
+        }
+        classrooms = new ArrayList<>(classroomList);
+        slots = new ArrayList<>(slotList);
+    }
+
     public Map<String, Course> getCourses() {
         return courses;
     }
@@ -71,13 +143,17 @@ public class DataRepository {
         return classrooms;
     }
 
+    public StudentIndex getStudentIndex() {
+        return studentIndex;
+    }
+
     // Returns all courses a given student is registered to.
 
     public List<Course> getCoursesOfStudent(String studentId) {
         List<Course> result = new ArrayList<>();
 
         for (Course c : courses.values()) {
-            if (c.getStudentIds().contains(studentId)) {
+            if (c.containsStudent(studentId)) {
                 result.add(c);
             }
         }
@@ -94,12 +170,7 @@ public class DataRepository {
             return false;
 
         // Check if there is any shared student ID
-        for (String s : c1.getStudentIds()) {
-            if (c2.getStudentIds().contains(s)) {
-                return true; // Conflict found
-            }
-        }
-        return false; // No shared students
+        return c1.sharesStudentWith(c2);
     }
 
     public List<Student> loadStudents(Path path) throws IOException {
@@ -139,7 +210,7 @@ public class DataRepository {
                 continue;
             }
 
-            list.add(new Course(trimmed));
+            list.add(new Course(trimmed, studentIndex));
         }
         return list;
     }
@@ -160,75 +231,34 @@ public class DataRepository {
                 continue;
             }
 
-            String[] parts = trimmed.split(";");
-            if (parts.length < 2) {
-                System.out.println("Invalid classroom entry: " + line);
-                continue;
-            }
-
-            String room = parts[0].trim();
-            int cap = Integer.parseInt(parts[1].trim());
-
-            list.add(new Classroom(room, cap));
+            Classroom room = parseClassroom(trimmed);
+            if (room != null)
+                list.add(room);
         }
         return list;
     }
 
 
-    public Map<String, Course> loadCourseRegistrations(Path path) throws IOException {
-        Map<String, Course> courseMap = new HashMap<>();
-        // to have an easy control, we use BufferedReader
-        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            String line;
-
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) {
-                    continue; // skip the empty lines
-                }
+    // One "room;capacity" line, or null (with a message) if it has no capacity.
+    public static Classroom parseClassroom(String line) {
+        String[] parts = line.split(";");
+        if (parts.length < 2) {
+            System.out.println("Invalid classroom entry: " + line);
+            return null;
+        }
 
-                // ex: "CourseCode_01"
-                if (line.startsWith("CourseCode_")) {
-                    String courseCode = line;
-
-                    // To find the student list belongs to this course
-                    String listLine = null;
-                    while ((listLine = br.readLine()) != null) {
-                        listLine = listLine.trim();
-                        if (!listLine.isEmpty()) {
-                            // list line
-                            break;
-                        }
-                    }
+        String room = parts[0].trim();
+        int cap = Integer.parseInt(parts[1].trim());
 
-                    if (listLine == null) {
-                        // File is finished, exit
-                        break;
-                    }
+        return new Classroom(room, cap);
+    }
 
-                    // Ex:
-                    // ['Std_ID_170', 'Std_ID_077', ..., 'Std_ID_168']
-                    String cleaned = listLine
-                            .replace("[", "")
-                            .replace("]", "")
-                            .replace("'", "")
-                            .replace("\"", "");
-
-                    String[] tokens = cleaned.split(",");
-                    Course course = courseMap.computeIfAbsent(courseCode, Course::new);
-
-                    for (String token : tokens) {
-                        String id = token.trim();
-                        if (id.isEmpty())
-                            continue;
-                        // Like now the id = "Std_ID_170"
-                        course.addStudent(id);
-                    }
-                }
-            }
+    // Streams the attendance lists into a StudentIndex of their own (see AttendanceListReader);
+    // replaceData maps them onto the repository's ordinals.
+    public Map<String, Course> loadCourseRegistrations(Path path) throws IOException {
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return new AttendanceListReader(new StudentIndex()).read(br);
         }
-
-        return courseMap;
     }
 
     public void loadSlots(Path slotConfigCsv) throws IOException {
@@ -247,6 +277,8 @@ public class DataRepository {
             }
 
             this.slots = SlotGenerator.generateSlots(numDays, timeRanges);
+            modificationCount++;
+            pendingChanges.slotsChanged();
             break; // we assume that we used single line config
         }
     }
@@ -260,6 +292,7 @@ public class DataRepository {
             return false;
         }
         students.put(studentId, new Student(studentId));
+        modificationCount++;
         return true;
     }
 
@@ -270,8 +303,10 @@ public class DataRepository {
         students.remove(studentId);
 
         for (Course c : courses.values()) {
-            c.getStudentIds().remove(studentId);
+            if (c.removeStudent(studentId))
+                pendingChanges.courseChanged(c.getCourseCode());
         }
+        modificationCount++;
         return true;
     }
 
@@ -281,7 +316,9 @@ public class DataRepository {
         if (courses.containsKey(courseCode)) {
             return false;
         }
-        courses.put(courseCode, new Course(courseCode));
+        courses.put(courseCode, new Course(courseCode, studentIndex));
+        modificationCount++;
+        pendingChanges.courseChanged(courseCode);
         return true;
     }
 
@@ -290,6 +327,8 @@ public class DataRepository {
             return false;
         }
         courses.remove(courseCode);
+        modificationCount++;
+        pendingChanges.courseChanged(courseCode);
         return true;
     }
 
@@ -302,15 +341,15 @@ public class DataRepository {
 
         Course c = courses.get(courseCode);
         if (c == null) {
-            c = new Course(courseCode);
+            c = new Course(courseCode, studentIndex);
             courses.put(courseCode, c);
         }
 
-        if (!c.getStudentIds().contains(studentId)) {
-            c.addStudent(studentId);
-            return true;
-        }
-        return false;
+        if (!c.addStudent(studentId))
+            return false;
+        modificationCount++;
+        pendingChanges.courseChanged(courseCode);
+        return true;
     }
 
     public boolean unregisterStudentFromCourse(String studentId, String courseCode) {
@@ -318,7 +357,11 @@ public class DataRepository {
         if (c == null) {
             return false;
         }
-        return c.getStudentIds().remove(studentId);
+        if (!c.removeStudent(studentId))
+            return false;
+        modificationCount++;
+        pendingChanges.courseChanged(courseCode);
+        return true;
     }
 
     public boolean updateClassroomCapacity(String roomId, int newCapacity) {
@@ -328,6 +371,8 @@ public class DataRepository {
         for (Classroom room : classrooms) {
             if (room.getRoomId().equals(roomId)) {
                 room.setCapacity(newCapacity);
+                modificationCount++;
+                pendingChanges.roomChanged(roomId);
                 return true;
             }
         }
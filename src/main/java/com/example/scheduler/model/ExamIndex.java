@@ -0,0 +1,107 @@
+package com.example.scheduler.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Fixed lookup tables over one Schedule for writing it out: the exams of each student and of each
+// (day, slot index), both in the schedule's own exam order. Built in one pass over the enrollments;
+// the per-student lists are a single int array with offsets per student ordinal, so the index costs
+// one int per registration. Not updated when the schedule changes. bySlot builds the slot table alone.
+public class ExamIndex {
+
+    private final Exam[] exams;
+    private final int[] studentStart; // exams of ordinal s are studentExams[studentStart[s] .. studentStart[s + 1])
+    private final int[] studentExams;
+    private final Map<Long, List<Exam>> examsBySlot = new HashMap<>();
+
+    public ExamIndex(Schedule schedule, StudentIndex students) {
+        exams = schedule.getAllExams().toArray(new Exam[0]);
+        int studentCount = students.size();
+        studentStart = new int[studentCount + 1];
+
+        int[][] ordinals = new int[exams.length][];
+        for (int e = 0; e < exams.length; e++) {
+            ordinals[e] = ordinalsIn(exams[e].getCourse(), students);
+            for (int s : ordinals[e]) {
+                if (s >= 0)
+                    studentStart[s + 1]++;
+            }
+            examsBySlot.computeIfAbsent(key(exams[e].getSlot()), k -> new ArrayList<>()).add(exams[e]);
+        }
+        for (int s = 0; s < studentCount; s++) {
+            studentStart[s + 1] += studentStart[s];
+        }
+
+        studentExams = new int[studentStart[studentCount]];
+        int[] next = new int[studentCount];
+        System.arraycopy(studentStart, 0, next, 0, studentCount);
+        for (int e = 0; e < exams.length; e++) {
+            for (int s : ordinals[e]) {
+                if (s >= 0)
+                    studentExams[next[s]++] = e;
+            }
+        }
+    }
+
+    // Only the exams of each slot, for writers that never look up students: no student has exams
+    // in it and getStudentCount is 0. Skips the pass over the enrollments.
+    public static ExamIndex bySlot(Schedule schedule) {
+        return new ExamIndex(schedule.getAllExams().toArray(new Exam[0]));
+    }
+
+    private ExamIndex(Exam[] exams) {
+        this.exams = exams;
+        this.studentStart = new int[1];
+        this.studentExams = new int[0];
+        for (Exam exam : exams) {
+            examsBySlot.computeIfAbsent(key(exam.getSlot()), k -> new ArrayList<>()).add(exam);
+        }
+    }
+
+    // The schedule's exams, in its own order.
+    public List<Exam> getExams() {
+        return Collections.unmodifiableList(Arrays.asList(exams));
+    }
+
+    public int getStudentCount() {
+        return studentStart.length - 1;
+    }
+
+    // Number of exams of the student with this ordinal (in the StudentIndex the index was built with).
+    public int examCount(int ordinal) {
+        if (ordinal < 0 || ordinal >= getStudentCount())
+            return 0;
+        return studentStart[ordinal + 1] - studentStart[ordinal];
+    }
+
+    // The i-th exam of the student, in schedule order.
+    public Exam examOf(int ordinal, int i) {
+        return exams[studentExams[studentStart[ordinal] + i]];
+    }
+
+    // Exams held at the slot's day and index, in schedule order.
+    public List<Exam> examsIn(Slot slot) {
+        return examsBySlot.getOrDefault(key(slot), Collections.emptyList());
+    }
+
+    // The course's enrollment as ordinals of the given index (-1 for students it does not have).
+    private static int[] ordinalsIn(Course course, StudentIndex students) {
+        int[] own = course.getStudentOrdinals();
+        StudentIndex courseIndex = course.getStudentIndex();
+        if (courseIndex == students)
+            return own;
+        int[] result = new int[own.length];
+        for (int i = 0; i < own.length; i++) {
+            result[i] = students.indexOf(courseIndex.idOf(own[i]));
+        }
+        return result;
+    }
+
+    private static long key(Slot slot) {
+        return ((long) slot.getDay() << 32) | (slot.getIndex() & 0xffffffffL);
+    }
+}
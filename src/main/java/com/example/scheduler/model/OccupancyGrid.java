@@ -0,0 +1,170 @@
+package com.example.scheduler.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Which classrooms are taken in which slot: one bitset over room ordinals per slot.
+// Attached to a Schedule as a listener, and also used to pick free rooms for a new exam.
+public class OccupancyGrid implements ScheduleListener {
+
+    private final List<Slot> slots;
+    private final List<Classroom> rooms;
+    private final Map<Slot, Integer> slotOrdinals = new HashMap<>();
+    private final Map<String, Integer> roomOrdinals = new HashMap<>();
+
+    // Room ordinals sorted by capacity, largest first (built once)
+    private final int[] roomsByCapacity;
+    private final long[][] occupied;
+
+    public OccupancyGrid(List<Slot> slots, List<Classroom> rooms) {
+        this.slots = new ArrayList<>(slots);
+        this.rooms = new ArrayList<>(rooms);
+
+        for (int i = 0; i < this.slots.size(); i++) {
+            slotOrdinals.putIfAbsent(this.slots.get(i), i);
+        }
+        for (int i = 0; i < this.rooms.size(); i++) {
+            roomOrdinals.putIfAbsent(this.rooms.get(i).getRoomId(), i);
+        }
+
+        Integer[] order = new Integer[this.rooms.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(this.rooms.get(b).getCapacity(), this.rooms.get(a).getCapacity()));
+        this.roomsByCapacity = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            roomsByCapacity[i] = order[i];
+        }
+
+        this.occupied = new long[this.slots.size()][(this.rooms.size() + 63) >>> 6];
+    }
+
+    // Creates a grid filled from the current exams and registers it on the schedule.
+    public static OccupancyGrid attach(Schedule schedule, List<Slot> slots, List<Classroom> rooms) {
+        OccupancyGrid grid = new OccupancyGrid(slots, rooms);
+        for (Exam exam : schedule.getAllExams()) {
+            grid.examAdded(exam);
+        }
+        schedule.addListener(grid);
+        return grid;
+    }
+
+    // Returns -1 for a slot that is not part of the grid.
+    public int slotOrdinal(Slot slot) {
+        Integer idx = slot == null ? null : slotOrdinals.get(slot);
+        return idx == null ? -1 : idx;
+    }
+
+    // The grid's classroom with the id, or null.
+    public Classroom findRoom(String roomId) {
+        Integer idx = roomOrdinals.get(roomId);
+        return idx == null ? null : rooms.get(idx);
+    }
+
+    public int roomOrdinal(Classroom room) {
+        Integer idx = roomOrdinals.get(room.getRoomId());
+        return idx == null ? -1 : idx;
+    }
+
+    public boolean isOccupied(Slot slot, Classroom room) {
+        int s = slotOrdinal(slot);
+        int r = roomOrdinal(room);
+        return s >= 0 && r >= 0 && isOccupied(s, r);
+    }
+
+    public boolean anyOccupied(Slot slot, List<Classroom> candidateRooms) {
+        int s = slotOrdinal(slot);
+        if (s < 0)
+            return false;
+        for (Classroom room : candidateRooms) {
+            int r = roomOrdinal(room);
+            if (r >= 0 && isOccupied(s, r))
+                return true;
+        }
+        return false;
+    }
+
+    // Total capacity of the rooms still free in the slot.
+    public int freeCapacity(Slot slot) {
+        int s = slotOrdinal(slot);
+        int total = 0;
+        for (int r = 0; r < rooms.size(); r++) {
+            if (s < 0 || !isOccupied(s, r))
+                total += rooms.get(r).getCapacity();
+        }
+        return total;
+    }
+
+    // Picks free rooms in the slot with enough seats, or returns null if the free rooms are too small.
+    // Uses the smallest single room that still fits the remaining students, otherwise the largest free room,
+    // so small exams leave the big rooms to others sharing the slot.
+    public List<Classroom> assignFreeRooms(Slot slot, int seatsNeeded) {
+        int s = slotOrdinal(slot);
+        List<Classroom> assigned = new ArrayList<>();
+        boolean[] taken = new boolean[rooms.size()];
+        int remaining = seatsNeeded;
+
+        do {
+            int largest = -1;
+            int bestFit = -1;
+            for (int r : roomsByCapacity) {
+                if (taken[r] || (s >= 0 && isOccupied(s, r)))
+                    continue;
+                if (largest < 0)
+                    largest = r;
+                if (rooms.get(r).getCapacity() >= remaining)
+                    bestFit = r; // keeps moving towards smaller rooms
+                else
+                    break;
+            }
+
+            int pick = bestFit >= 0 ? bestFit : largest;
+            if (pick < 0)
+                return null;
+            taken[pick] = true;
+            assigned.add(rooms.get(pick));
+            remaining -= rooms.get(pick).getCapacity();
+        } while (remaining > 0);
+
+        return assigned;
+    }
+
+    @Override
+    public void examAdded(Exam exam) {
+        mark(exam.getSlot(), exam.getAssignedRooms(), true);
+    }
+
+    @Override
+    public void examRemoved(Exam exam) {
+        mark(exam.getSlot(), exam.getAssignedRooms(), false);
+    }
+
+    @Override
+    public void examMoved(Exam exam, Slot oldSlot) {
+        mark(oldSlot, exam.getAssignedRooms(), false);
+        mark(exam.getSlot(), exam.getAssignedRooms(), true);
+    }
+
+    private boolean isOccupied(int slot, int room) {
+        return (occupied[slot][room >>> 6] & (1L << room)) != 0;
+    }
+
+    private void mark(Slot slot, List<Classroom> examRooms, boolean value) {
+        int s = slotOrdinal(slot);
+        if (s < 0 || examRooms == null)
+            return;
+        for (Classroom room : examRooms) {
+            int r = roomOrdinal(room);
+            if (r < 0)
+                continue;
+            if (value)
+                occupied[s][r >>> 6] |= 1L << r;
+            else
+                occupied[s][r >>> 6] &= ~(1L << r);
+        }
+    }
+}
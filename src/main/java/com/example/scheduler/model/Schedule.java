@@ -5,10 +5,36 @@ import java.util.*;
 public class Schedule {
 
     private final Map<String, Exam> examsByCourse = new HashMap<>();
+    private final List<ScheduleListener> listeners = new ArrayList<>();
 
     public void addExam(Exam exam) {
         String code = exam.getCourse().getCourseCode();
-        examsByCourse.put(code, exam);
+        Exam previous = examsByCourse.put(code, exam);
+        if (previous != null) {
+            for (ScheduleListener l : listeners)
+                l.examRemoved(previous);
+        }
+        for (ScheduleListener l : listeners)
+            l.examAdded(exam);
+    }
+
+    public boolean removeExam(Exam exam) {
+        String code = exam.getCourse().getCourseCode();
+        if (!examsByCourse.remove(code, exam))
+            return false;
+        for (ScheduleListener l : listeners)
+            l.examRemoved(exam);
+        return true;
+    }
+
+    // Moves an exam to another slot and notifies the listeners (use this instead of Exam.setSlot).
+    public void moveExam(Exam exam, Slot newSlot) {
+        Slot oldSlot = exam.getSlot();
+        exam.setSlot(newSlot);
+        if (examsByCourse.get(exam.getCourse().getCourseCode()) != exam)
+            return;
+        for (ScheduleListener l : listeners)
+            l.examMoved(exam, oldSlot);
     }
 
     public Collection<Exam> getAllExams() {
@@ -18,4 +44,12 @@ public class Schedule {
     public Exam getExamByCourse(String courseCode) {
         return examsByCourse.get(courseCode);
     }
+
+    public void addListener(ScheduleListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ScheduleListener listener) {
+        listeners.remove(listener);
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.scheduler.model;
+
+// Receives every change made to a Schedule, so derived indexes can stay in sync incrementally.
+public interface ScheduleListener {
+
+    void examAdded(Exam exam);
+
+    void examRemoved(Exam exam);
+
+    void examMoved(Exam exam, Slot oldSlot);
+}
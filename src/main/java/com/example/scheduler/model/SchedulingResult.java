@@ -8,6 +8,8 @@ public class SchedulingResult {
     private Schedule schedule;
     private List<String> relaxations = new ArrayList<>();
     private int penaltyScore = 0;
+    // Proven lower bound on the penalty score of any schedule for the same data, -1 if unknown
+    private int lowerBound = -1;
 
     public SchedulingResult(Schedule schedule) {
         this.schedule = schedule;
@@ -29,4 +31,21 @@ public class SchedulingResult {
     public int getPenaltyScore() {
         return penaltyScore;
     }
+
+    public void setPenaltyScore(int penaltyScore) {
+        this.penaltyScore = penaltyScore;
+    }
+
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    public void setLowerBound(int lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    // How far the penalty score can be above the optimum, -1 if no bound is known.
+    public int getOptimalityGap() {
+        return lowerBound < 0 ? -1 : Math.max(0, penaltyScore - lowerBound);
+    }
 }
\ No newline at end of file
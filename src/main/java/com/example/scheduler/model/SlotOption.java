@@ -0,0 +1,51 @@
+package com.example.scheduler.model;
+
+// How moving one exam into one slot would turn out: the hard rules the move breaks and
+// the change of the soft-constraint penalty.
+public class SlotOption {
+
+    private final Slot slot;
+    private final boolean studentClash;
+    private final boolean roomClash;
+    private final boolean consecutiveClash;
+    private final boolean dayLimitExceeded;
+    private final int penaltyDelta;
+
+    public SlotOption(Slot slot, boolean studentClash, boolean roomClash, boolean consecutiveClash,
+            boolean dayLimitExceeded, int penaltyDelta) {
+        this.slot = slot;
+        this.studentClash = studentClash;
+        this.roomClash = roomClash;
+        this.consecutiveClash = consecutiveClash;
+        this.dayLimitExceeded = dayLimitExceeded;
+        this.penaltyDelta = penaltyDelta;
+    }
+
+    public Slot getSlot() {
+        return slot;
+    }
+
+    public boolean isStudentClash() {
+        return studentClash;
+    }
+
+    public boolean isRoomClash() {
+        return roomClash;
+    }
+
+    public boolean isConsecutiveClash() {
+        return consecutiveClash;
+    }
+
+    public boolean isDayLimitExceeded() {
+        return dayLimitExceeded;
+    }
+
+    public int getPenaltyDelta() {
+        return penaltyDelta;
+    }
+
+    public boolean isFeasible() {
+        return !studentClash && !roomClash && !consecutiveClash && !dayLimitExceeded;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.scheduler.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Maps every student ID (e.g. "Std_ID_170") to a dense int ordinal, so courses can store
+// their enrollments as sorted int arrays instead of lists of Strings.
+// Ordinals are never reused: a removed student keeps its ordinal for the lifetime of the index.
+// The lookup table is open addressing over ordinals with linear probing, keyed by String.hashCode,
+// so an ID can also be looked up straight from a char range without building a String first.
+public class StudentIndex {
+
+    private final List<String> ids = new ArrayList<>();
+    private int[] hashes = new int[16];
+
+    // ordinal + 1 per entry, 0 when empty; kept at most half full
+    private int[] table = new int[32];
+
+    // Returns the ordinal of the student, assigning the next free one on first sight.
+    public int intern(String studentId) {
+        int hash = studentId.hashCode();
+        int mask = table.length - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == 0)
+                return add(studentId, hash, i);
+            if (hashes[entry - 1] == hash && ids.get(entry - 1).equals(studentId))
+                return entry - 1;
+        }
+    }
+
+    // Same as intern(new String(chars, offset, length)), but only makes the String for a new student.
+    public int intern(char[] chars, int offset, int length) {
+        int hash = hash(chars, offset, length);
+        int mask = table.length - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == 0)
+                return add(new String(chars, offset, length), hash, i);
+            if (hashes[entry - 1] == hash && matches(ids.get(entry - 1), chars, offset, length))
+                return entry - 1;
+        }
+    }
+
+    // Returns -1 if the student has never been interned.
+    public int indexOf(String studentId) {
+        int hash = studentId.hashCode();
+        int mask = table.length - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == 0)
+                return -1;
+            if (hashes[entry - 1] == hash && ids.get(entry - 1).equals(studentId))
+                return entry - 1;
+        }
+    }
+
+    public String idOf(int ordinal) {
+        return ids.get(ordinal);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private int add(String studentId, int hash, int slot) {
+        int ordinal = ids.size();
+        ids.add(studentId);
+        if (ordinal == hashes.length)
+            hashes = Arrays.copyOf(hashes, ordinal * 2);
+        hashes[ordinal] = hash;
+        table[slot] = ordinal + 1;
+        if (ids.size() * 2 > table.length)
+            rehash();
+        return ordinal;
+    }
+
+    private void rehash() {
+        int[] bigger = new int[table.length * 2];
+        int mask = bigger.length - 1;
+        for (int ordinal = 0; ordinal < ids.size(); ordinal++) {
+            int i = spread(hashes[ordinal]) & mask;
+            while (bigger[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            bigger[i] = ordinal + 1;
+        }
+        table = bigger;
+    }
+
+    // String.hashCode over the char range
+    private static int hash(char[] chars, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + chars[i];
+        }
+        return h;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String id, char[] chars, int offset, int length) {
+        if (id.length() != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (id.charAt(i) != chars[offset + i])
+                return false;
+        }
+        return true;
+    }
+}
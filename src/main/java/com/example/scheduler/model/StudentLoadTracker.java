@@ -0,0 +1,106 @@
+package com.example.scheduler.model;
+
+// Keeps the number of exams each student has on each day, indexed by student ordinal.
+// Attached to a Schedule as a listener, so the counters follow every add, remove and move
+// and the max-exams-per-day rule can be checked in O(enrollment).
+public class StudentLoadTracker implements ScheduleListener {
+
+    private int studentCapacity;
+    private int days;
+    // counts[student * days + (day - 1)]
+    private short[] counts;
+
+    public StudentLoadTracker(int studentCount, int days) {
+        this.studentCapacity = Math.max(studentCount, 1);
+        this.days = Math.max(days, 1);
+        this.counts = new short[studentCapacity * this.days];
+    }
+
+    // Creates a tracker filled from the current exams and registers it on the schedule.
+    public static StudentLoadTracker attach(Schedule schedule, int studentCount, int days) {
+        StudentLoadTracker tracker = new StudentLoadTracker(studentCount, days);
+        for (Exam exam : schedule.getAllExams()) {
+            tracker.examAdded(exam);
+        }
+        schedule.addListener(tracker);
+        return tracker;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getStudentCapacity() {
+        return studentCapacity;
+    }
+
+    public int getCount(int student, int day) {
+        if (student >= studentCapacity || day < 1 || day > days)
+            return 0;
+        return counts[student * days + (day - 1)];
+    }
+
+    // True if placing the course on the given day would give any of its students more than maxPerDay exams.
+    public boolean wouldExceed(Course course, int day, int maxPerDay) {
+        for (int student : course.getStudentOrdinals()) {
+            if (getCount(student, day) >= maxPerDay)
+                return true;
+        }
+        return false;
+    }
+
+    // Same check for an exam that is already in the schedule and is being moved to another day.
+    public boolean wouldExceedAfterMove(Exam exam, int newDay, int maxPerDay) {
+        if (exam.getSlot() != null && exam.getSlot().getDay() == newDay) {
+            return wouldExceed(exam.getCourse(), newDay, maxPerDay + 1);
+        }
+        return wouldExceed(exam.getCourse(), newDay, maxPerDay);
+    }
+
+    @Override
+    public void examAdded(Exam exam) {
+        update(exam.getCourse(), exam.getSlot(), 1);
+    }
+
+    @Override
+    public void examRemoved(Exam exam) {
+        update(exam.getCourse(), exam.getSlot(), -1);
+    }
+
+    @Override
+    public void examMoved(Exam exam, Slot oldSlot) {
+        update(exam.getCourse(), oldSlot, -1);
+        update(exam.getCourse(), exam.getSlot(), 1);
+    }
+
+    private void update(Course course, Slot slot, int delta) {
+        if (slot == null || slot.getDay() < 1)
+            return;
+        int[] students = course.getStudentOrdinals();
+        if (students.length == 0)
+            return;
+
+        ensureCapacity(students[students.length - 1] + 1, slot.getDay());
+        int dayOffset = slot.getDay() - 1;
+        for (int student : students) {
+            counts[student * days + dayOffset] += delta;
+        }
+    }
+
+    // Students registered or days configured after the tracker was created
+    private void ensureCapacity(int studentCount, int day) {
+        if (studentCount <= studentCapacity && day <= days)
+            return;
+
+        int newCapacity = studentCount <= studentCapacity ? studentCapacity
+                : Math.max(studentCount, studentCapacity + (studentCapacity >> 1));
+        int newDays = Math.max(day, days);
+        short[] grown = new short[newCapacity * newDays];
+        for (int s = 0; s < studentCapacity; s++) {
+            System.arraycopy(counts, s * days, grown, s * newDays, days);
+        }
+        counts = grown;
+        studentCapacity = newCapacity;
+        days = newDays;
+    }
+}
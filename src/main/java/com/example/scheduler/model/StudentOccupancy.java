@@ -0,0 +1,283 @@
+package com.example.scheduler.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-student bitmask of the slots the student has an exam in. Slots get a dense position
+// (day - 1) * slotsPerDay + (index - 1), so a whole exam period is one or two longs per student:
+// a same-slot clash is one bit test, a consecutive exam an AND with the neighbour bits and the
+// exams of a day a popcount over the day's bits. Attached to a Schedule as a listener.
+// A student with two exams in one slot (a clash made by hand) keeps the extra ones in a small
+// side table, so removing one of them leaves the bit set.
+public class StudentOccupancy implements ScheduleListener {
+
+    private final int days;
+    private final int slotsPerDay;
+    private final int positions;
+    private final int words;
+    private int studentCapacity;
+    private long[] masks;
+
+    // bits of each day, and of the positions right before and after each position on the same day
+    private final long[][] dayMasks;
+    private final long[][] neighbourMasks;
+    // bit p set when position p + 1 is the next slot of the same day
+    private final long[] pairStarts;
+
+    // (student * positions + position) -> exams beyond the first in that slot
+    private final Map<Long, Integer> extra = new HashMap<>();
+
+    public StudentOccupancy(int studentCount, int days, int slotsPerDay) {
+        this.days = Math.max(days, 1);
+        this.slotsPerDay = Math.max(slotsPerDay, 1);
+        this.positions = this.days * this.slotsPerDay;
+        this.words = (positions + 63) >>> 6;
+        this.studentCapacity = Math.max(studentCount, 1);
+        this.masks = new long[studentCapacity * words];
+
+        this.dayMasks = new long[this.days + 1][words];
+        this.neighbourMasks = new long[positions][words];
+        this.pairStarts = new long[words];
+        for (int p = 0; p < positions; p++) {
+            int day = p / this.slotsPerDay + 1;
+            int index = p % this.slotsPerDay;
+            dayMasks[day][p >>> 6] |= 1L << p;
+            if (index > 0)
+                neighbourMasks[p][(p - 1) >>> 6] |= 1L << (p - 1);
+            if (index < this.slotsPerDay - 1) {
+                neighbourMasks[p][(p + 1) >>> 6] |= 1L << (p + 1);
+                pairStarts[p >>> 6] |= 1L << p;
+            }
+        }
+    }
+
+    // Sized for the slot configuration, filled from the current exams and registered on the schedule.
+    public static StudentOccupancy attach(Schedule schedule, int studentCount, List<Slot> slots) {
+        int days = 0;
+        int slotsPerDay = 0;
+        for (Slot s : slots) {
+            days = Math.max(days, s.getDay());
+            slotsPerDay = Math.max(slotsPerDay, s.getIndex());
+        }
+        StudentOccupancy occupancy = new StudentOccupancy(studentCount, days, slotsPerDay);
+        for (Exam exam : schedule.getAllExams()) {
+            occupancy.examAdded(exam);
+        }
+        schedule.addListener(occupancy);
+        return occupancy;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    // Dense position of the slot, -1 if it lies outside the configured period.
+    public int position(Slot slot) {
+        if (slot == null || slot.getDay() < 1 || slot.getDay() > days || slot.getIndex() < 1
+                || slot.getIndex() > slotsPerDay)
+            return -1;
+        return (slot.getDay() - 1) * slotsPerDay + (slot.getIndex() - 1);
+    }
+
+    // Number of exams the student has in the slot position.
+    public int countAt(int student, int position) {
+        if (student >= studentCapacity || position < 0 || !bit(student, position))
+            return 0;
+        return 1 + extra.getOrDefault(key(student, position), 0);
+    }
+
+    public int dayCount(int student, int day) {
+        if (student >= studentCapacity || day < 1 || day > days)
+            return 0;
+        int count = 0;
+        int base = student * words;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(masks[base + w] & dayMasks[day][w]);
+        }
+        if (!extra.isEmpty()) {
+            int first = (day - 1) * slotsPerDay;
+            for (int p = first; p < first + slotsPerDay; p++) {
+                count += extra.getOrDefault(key(student, p), 0);
+            }
+        }
+        return count;
+    }
+
+    // Pairs of back-to-back slots on one day in which the student has exams: (mask >>> 1) & mask.
+    public int consecutivePairs(int student) {
+        if (student >= studentCapacity)
+            return 0;
+        int base = student * words;
+        int pairs = 0;
+        for (int w = 0; w < words; w++) {
+            long mask = masks[base + w];
+            long next = mask >>> 1;
+            if (w + 1 < words)
+                next |= masks[base + w + 1] << 63;
+            pairs += Long.bitCount(mask & next & pairStarts[w]);
+        }
+        return pairs;
+    }
+
+    // Exams beyond the first that the student has in a single slot, over all slots.
+    public int clashCount(int student) {
+        if (extra.isEmpty() || student >= studentCapacity)
+            return 0;
+        int clashes = 0;
+        for (int p = 0; p < positions; p++) {
+            clashes += extra.getOrDefault(key(student, p), 0);
+        }
+        return clashes;
+    }
+
+    public int getStudentCapacity() {
+        return studentCapacity;
+    }
+
+    // True if the student has an exam right before or after the position on the same day.
+    public boolean hasNeighbour(int student, int position) {
+        if (student >= studentCapacity || position < 0)
+            return false;
+        int base = student * words;
+        for (int w = 0; w < words; w++) {
+            if ((masks[base + w] & neighbourMasks[position][w]) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    // Some student of the course has another exam in the position; ownPosition is where the
+    // course's own exam sits (-1 if not in the schedule) and is not counted.
+    public boolean hasClash(Course course, int position, int ownPosition) {
+        if (position < 0)
+            return false;
+        int own = position == ownPosition ? 1 : 0;
+        for (int student : course.getStudentOrdinals()) {
+            if (countAt(student, position) > own)
+                return true;
+        }
+        return false;
+    }
+
+    // Some student of the course has another exam right before or after the position on the same day.
+    public boolean hasConsecutive(Course course, int position, int ownPosition) {
+        if (position < 0)
+            return false;
+        boolean ownIsNeighbour = ownPosition >= 0
+                && (neighbourMasks[position][ownPosition >>> 6] & (1L << ownPosition)) != 0;
+        for (int student : course.getStudentOrdinals()) {
+            if (student >= studentCapacity)
+                continue;
+            if (!ownIsNeighbour) {
+                if (hasNeighbour(student, position))
+                    return true;
+            } else {
+                int base = student * words;
+                for (int w = 0; w < words; w++) {
+                    long bits = masks[base + w] & neighbourMasks[position][w];
+                    if (w == ownPosition >>> 6)
+                        bits &= ~(1L << ownPosition);
+                    if (bits != 0)
+                        return true;
+                }
+                if (countAt(student, ownPosition) > 1)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // Positions in which some student of the course has another exam: the OR of the students'
+    // masks, without the course's own exam at ownPosition.
+    public long[] busyPositions(Course course, int ownPosition) {
+        long[] busy = new long[words];
+        boolean ownShared = false;
+        for (int student : course.getStudentOrdinals()) {
+            if (student >= studentCapacity)
+                continue;
+            int base = student * words;
+            for (int w = 0; w < words; w++) {
+                busy[w] |= masks[base + w];
+            }
+            if (!ownShared && ownPosition >= 0 && countAt(student, ownPosition) > 1)
+                ownShared = true;
+        }
+        if (ownPosition >= 0 && !ownShared)
+            busy[ownPosition >>> 6] &= ~(1L << ownPosition);
+        return busy;
+    }
+
+    public static boolean isSet(long[] bits, int position) {
+        return position >= 0 && (bits[position >>> 6] & (1L << position)) != 0;
+    }
+
+    @Override
+    public void examAdded(Exam exam) {
+        update(exam.getCourse(), exam.getSlot(), true);
+    }
+
+    @Override
+    public void examRemoved(Exam exam) {
+        update(exam.getCourse(), exam.getSlot(), false);
+    }
+
+    @Override
+    public void examMoved(Exam exam, Slot oldSlot) {
+        update(exam.getCourse(), oldSlot, false);
+        update(exam.getCourse(), exam.getSlot(), true);
+    }
+
+    private void update(Course course, Slot slot, boolean add) {
+        int p = position(slot);
+        int[] students = course.getStudentOrdinals();
+        if (p < 0 || students.length == 0)
+            return;
+        ensureCapacity(students[students.length - 1] + 1);
+
+        int word = p >>> 6;
+        long bit = 1L << p;
+        for (int student : students) {
+            int i = student * words + word;
+            if (add) {
+                if ((masks[i] & bit) == 0)
+                    masks[i] |= bit;
+                else
+                    extra.merge(key(student, p), 1, Integer::sum);
+            } else {
+                Long key = key(student, p);
+                Integer more = extra.get(key);
+                if (more == null)
+                    masks[i] &= ~bit;
+                else if (more == 1)
+                    extra.remove(key);
+                else
+                    extra.put(key, more - 1);
+            }
+        }
+    }
+
+    private boolean bit(int student, int position) {
+        return (masks[student * words + (position >>> 6)] & (1L << position)) != 0;
+    }
+
+    private long key(int student, int position) {
+        return (long) student * positions + position;
+    }
+
+    private void ensureCapacity(int students) {
+        if (students <= studentCapacity)
+            return;
+        studentCapacity = Math.max(students, studentCapacity * 2);
+        masks = Arrays.copyOf(masks, studentCapacity * words);
+    }
+}
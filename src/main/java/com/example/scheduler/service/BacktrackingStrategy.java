@@ -0,0 +1,298 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.SchedulingResult;
+
+import java.util.Arrays;
+
+// Complete search over the courses that are not placed yet. Every course keeps a live domain of
+// the slots its placed neighbours still allow (forward checking): a placement prunes its slot and
+// the adjacent slots of the same day from every unplaced neighbour. When a domain runs empty the
+// search jumps back to the latest placement that actually caused it (conflict-directed backjumping).
+// If the search runs out of options the data is proven infeasible, unless a slot was refused for
+// lack of rooms: rooms are assigned greedily, not searched, so then it is no proof. Node and time
+// limits stop it earlier.
+public class BacktrackingStrategy implements SchedulingStrategy {
+
+    private static final int FREE = -1;
+    private static final int FIXED = -2; // pruned by an exam placed before the search started
+
+    private final long nodeLimit;
+    private final long timeLimitMillis;
+
+    public BacktrackingStrategy() {
+        this(new SchedulingOptions());
+    }
+
+    public BacktrackingStrategy(SchedulingOptions options) {
+        this.nodeLimit = options.getNodeLimit();
+        this.timeLimitMillis = options.getTimeLimitMillis();
+    }
+
+    @Override
+    public String getName() {
+        return "Backtracking";
+    }
+
+    @Override
+    public SchedulingResult schedule(PlacementEngine placement) {
+        return new Search(placement).run();
+    }
+
+    private final class Search {
+        private final PlacementEngine placement;
+        private final ConflictGraph graph;
+        private final int courseCount;
+        private final int slotCount;
+        private final int courseWords;
+
+        // Courses the search has to place
+        private final boolean[] variable;
+        private int variableCount;
+
+        // prunedBy[c][s]: FREE while slot s is in the domain of c, otherwise the course that pruned it (or FIXED)
+        private final int[][] prunedBy;
+        private final int[] domainSize;
+        private final long[][] conflictSet;
+
+        private final int[] depthOf;
+        private final int[] stackCourse;
+        private final int[] stackNextSlot;
+        private final int[] trailStart;
+        private int top = -1;
+
+        private int[] trailCourse = new int[1024];
+        private int[] trailSlot = new int[1024];
+        private int trailSize;
+
+        private long nodes;
+        private final long deadline;
+        private final long roomRefusalsBefore;
+
+        Search(PlacementEngine placement) {
+            this.placement = placement;
+            this.graph = placement.getConflictGraph();
+            this.courseCount = graph.size();
+            this.slotCount = placement.slotCount();
+            this.courseWords = (courseCount + 63) >>> 6;
+
+            this.variable = new boolean[courseCount];
+            this.prunedBy = new int[courseCount][];
+            this.domainSize = new int[courseCount];
+            this.conflictSet = new long[courseCount][];
+            this.depthOf = new int[courseCount];
+            this.stackCourse = new int[courseCount];
+            this.stackNextSlot = new int[courseCount];
+            this.trailStart = new int[courseCount];
+            Arrays.fill(depthOf, -1);
+
+            this.deadline = System.currentTimeMillis() + timeLimitMillis;
+            this.roomRefusalsBefore = placement.getRoomRefusals();
+        }
+
+        SchedulingResult run() {
+            for (int c = 0; c < courseCount; c++) {
+                if (placement.isPlaced(c))
+                    continue;
+                variable[c] = true;
+                variableCount++;
+                prunedBy[c] = new int[slotCount];
+                conflictSet[c] = new long[courseWords];
+
+                // Exams that were already in the schedule never move, so their effect is permanent
+                int seats = graph.getCourse(c).getStudentCount();
+                for (int s = 0; s < slotCount; s++) {
+                    boolean allowed = placement.isStudentFeasible(c, s)
+                            && placement.getOccupancy().freeCapacity(placement.getSlots().get(s)) >= seats;
+                    prunedBy[c][s] = allowed ? FREE : FIXED;
+                    if (allowed)
+                        domainSize[c]++;
+                }
+                if (domainSize[c] == 0) {
+                    throw new InfeasibleScheduleException("No feasible schedule exists: no slot can hold "
+                            + graph.getCourse(c).getCourseCode() + ".", true);
+                }
+            }
+
+            while (top + 1 < variableCount) {
+                int c = selectCourse();
+                top++;
+                stackCourse[top] = c;
+                stackNextSlot[top] = 0;
+                Arrays.fill(conflictSet[c], 0L);
+
+                while (!label()) {
+                    backjump();
+                }
+            }
+
+            return new SchedulingResult(placement.getSchedule());
+        }
+
+        // Smallest live domain first, then the most conflicting and largest course.
+        private int selectCourse() {
+            int best = -1;
+            for (int c = 0; c < courseCount; c++) {
+                if (!variable[c] || depthOf[c] >= 0)
+                    continue;
+                if (best < 0 || domainSize[c] < domainSize[best]
+                        || (domainSize[c] == domainSize[best] && (graph.degree(c) > graph.degree(best)
+                                || (graph.degree(c) == graph.degree(best) && graph.getCourse(c)
+                                        .getStudentCount() > graph.getCourse(best).getStudentCount())))) {
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        // Tries the remaining slots of the course on top of the stack; true once one sticks.
+        private boolean label() {
+            int c = stackCourse[top];
+            for (int s = stackNextSlot[top]; s < slotCount; s++) {
+                if (prunedBy[c][s] != FREE)
+                    continue;
+                stackNextSlot[top] = s + 1;
+                countNode();
+
+                if (placement.tryPlace(c, s) == null) {
+                    addPlacementCulprits(c, s);
+                    continue;
+                }
+                depthOf[c] = top;
+                trailStart[top] = trailSize;
+
+                int wipedOut = forwardCheck(c, s);
+                if (wipedOut < 0)
+                    return true;
+
+                addPrunersOf(wipedOut, conflictSet[c], c);
+                undoPrunings(top);
+                placement.remove(c);
+                depthOf[c] = -1;
+            }
+            return false;
+        }
+
+        // Returns the neighbour whose domain ran empty, or -1.
+        private int forwardCheck(int c, int slot) {
+            int previous = placement.previousSlot(slot);
+            int next = placement.nextSlot(slot);
+            for (int v : graph.neighbours(c)) {
+                if (!variable[v] || depthOf[v] >= 0)
+                    continue;
+                prune(v, slot, c);
+                if (previous >= 0)
+                    prune(v, previous, c);
+                if (next >= 0)
+                    prune(v, next, c);
+                if (domainSize[v] == 0)
+                    return v;
+            }
+            return -1;
+        }
+
+        // The course on top of the stack has no slot left: jump back to the latest placement
+        // in its conflict set and let that course try its next slot.
+        private void backjump() {
+            int failed = stackCourse[top];
+            long[] reasons = conflictSet[failed].clone();
+            addPrunersOf(failed, reasons, failed);
+
+            int target = -1;
+            for (int w = 0; w < courseWords; w++) {
+                long bits = reasons[w];
+                while (bits != 0) {
+                    int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (depthOf[u] >= 0 && (target < 0 || depthOf[u] > depthOf[target]))
+                        target = u;
+                }
+            }
+            if (target < 0) {
+                String course = graph.getCourse(failed).getCourseCode();
+                if (placement.getRoomRefusals() != roomRefusalsBefore) {
+                    throw new InfeasibleScheduleException("No schedule found: the search could not place " + course
+                            + ", but some slots were refused only for lack of rooms, which are assigned greedily ("
+                            + nodes + " nodes explored).", false);
+                }
+                throw new InfeasibleScheduleException("No feasible schedule exists: the complete search showed that "
+                        + course + " cannot be placed (" + nodes + " nodes explored).", true);
+            }
+
+            top--;
+            while (stackCourse[top] != target) {
+                unassign(top);
+                top--;
+            }
+            unassign(top);
+
+            reasons[target >>> 6] &= ~(1L << target);
+            long[] targetSet = conflictSet[target];
+            for (int w = 0; w < courseWords; w++) {
+                targetSet[w] |= reasons[w];
+            }
+        }
+
+        private void unassign(int depth) {
+            int c = stackCourse[depth];
+            undoPrunings(depth);
+            placement.remove(c);
+            depthOf[c] = -1;
+        }
+
+        private void prune(int v, int slot, int pruner) {
+            if (prunedBy[v][slot] != FREE)
+                return;
+            prunedBy[v][slot] = pruner;
+            domainSize[v]--;
+            if (trailSize == trailCourse.length) {
+                trailCourse = Arrays.copyOf(trailCourse, trailSize * 2);
+                trailSlot = Arrays.copyOf(trailSlot, trailSize * 2);
+            }
+            trailCourse[trailSize] = v;
+            trailSlot[trailSize] = slot;
+            trailSize++;
+        }
+
+        private void undoPrunings(int depth) {
+            while (trailSize > trailStart[depth]) {
+                trailSize--;
+                prunedBy[trailCourse[trailSize]][trailSlot[trailSize]] = FREE;
+                domainSize[trailCourse[trailSize]]++;
+            }
+        }
+
+        // Adds every placed course that pruned a slot of v to the set.
+        private void addPrunersOf(int v, long[] set, int exclude) {
+            for (int s = 0; s < slotCount; s++) {
+                int pruner = prunedBy[v][s];
+                if (pruner >= 0 && pruner != exclude)
+                    set[pruner >>> 6] |= 1L << pruner;
+            }
+        }
+
+        // A slot left in the domain can still fail on rooms or on the max-two-per-day rule;
+        // blame the placed courses sharing that slot or that day with the course.
+        private void addPlacementCulprits(int c, int slot) {
+            boolean roomFailure = placement.roomsFor(c, slot) == null;
+            int day = placement.getSlots().get(slot).getDay();
+            for (int depth = 0; depth < top; depth++) {
+                int u = stackCourse[depth];
+                int uSlot = placement.slotOf(u);
+                if (uSlot < 0)
+                    continue;
+                boolean sameSlot = roomFailure && uSlot == slot;
+                boolean sameDay = graph.conflicts(c, u) && placement.getSlots().get(uSlot).getDay() == day;
+                if (sameSlot || sameDay)
+                    conflictSet[c][u >>> 6] |= 1L << u;
+            }
+        }
+
+        private void countNode() {
+            nodes++;
+            if (nodes > nodeLimit || ((nodes & 1023) == 0 && System.currentTimeMillis() > deadline)) {
+                throw new InfeasibleScheduleException("Search limit reached after " + (nodes - 1)
+                        + " nodes without finding a feasible schedule.", false);
+            }
+        }
+    }
+}
@@ -0,0 +1,649 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Exact depth-first search for the schedule with the least penalty (MIN_PENALTY) or the fewest exam
+// days (MIN_DAYS). Domains are kept by forward checking like in BacktrackingStrategy, but the search
+// goes on after the first schedule: a branch is cut as soon as its penalty, plus what the open
+// courses must still add, reaches the best one found (the penalty never drops when an exam is
+// added), and the search ends early once the best schedule meets the lower bound from LowerBounds.
+// What the open courses must add is bounded per node in two ways, of which the larger is taken:
+// for every student, the least their open exams can add on top of the days they already have
+// exams on, and over disjoint cliques of the conflict graph, the same-day pairs a clique's open
+// courses make when they go to its emptiest days. For MIN_DAYS it looks for a schedule within
+// one day less than the best so far until that is proven impossible or the bound is reached.
+// When every day has the same slots, symmetric branches are skipped: the first exam of an empty
+// day goes into the first half of its slots (a day read backwards has the same adjacencies), for
+// MIN_DAYS only the lowest empty day is opened (days are interchangeable), and for MIN_PENALTY the
+// very first exam goes into the first half of the days (the penalty is the same read backwards).
+// On its node or time limit the best schedule so far is returned together with the gap to the bound.
+// Rooms are assigned greedily, not searched, so a search in which some slot was refused only for
+// lack of rooms neither raises the bound nor proves optimality or infeasibility.
+public class BranchAndBoundStrategy implements SchedulingStrategy {
+
+    public enum Objective {
+        MIN_PENALTY, MIN_DAYS
+    }
+
+    // Largest table of student bounds a search keeps
+    private static final int MEMO_LIMIT = 1 << 18;
+
+    private final Objective objective;
+    private final long nodeLimit;
+    private final long timeLimitMillis;
+    private Schedule incumbent;
+
+    // Outcome of the last run: the objective value of the returned schedule and the proven bound
+    private int bestValue = -1;
+    private int lowerBound = -1;
+    private boolean provenOptimal;
+    private long nodesExplored;
+
+    public BranchAndBoundStrategy(SchedulingOptions options, Objective objective) {
+        this.objective = objective;
+        this.nodeLimit = options.getNodeLimit();
+        this.timeLimitMillis = options.getTimeLimitMillis();
+    }
+
+    @Override
+    public String getName() {
+        return "Branch and bound";
+    }
+
+    // A complete schedule for the same data to start from; the search then only looks for better ones.
+    public void setIncumbent(Schedule incumbent) {
+        this.incumbent = incumbent;
+    }
+
+    // Penalty (MIN_PENALTY) or number of days (MIN_DAYS) of the last schedule returned.
+    public int getBestValue() {
+        return bestValue;
+    }
+
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    public int getGap() {
+        return bestValue < 0 ? -1 : bestValue - lowerBound;
+    }
+
+    public boolean isProvenOptimal() {
+        return provenOptimal;
+    }
+
+    public long getNodesExplored() {
+        return nodesExplored;
+    }
+
+    @Override
+    public SchedulingResult schedule(PlacementEngine placement) {
+        return new Search(placement).run();
+    }
+
+    private final class Search {
+        private final PlacementEngine placement;
+        private final ConflictGraph graph;
+        private final Schedule schedule;
+        private final int courseCount;
+        private final int slotCount;
+        private final int days;
+        private final int slotsPerDay;
+        private final int[] dayOf;
+        private final boolean symmetric;
+
+        private final int[] variables;
+        private final boolean[] isVariable;
+        // blocked[c][s] counts what rules slot s out for course c: placed neighbours in or next to
+        // it, or (permanently) the exams that were in the schedule before the search
+        private final int[][] blocked;
+        private final int[] domainSize;
+        private final int[] examsOnDay;
+        private int examCount;
+
+        // Disjoint cliques with open courses (MIN_PENALTY only), the clique of each course or -1,
+        // and per clique its exams on each day and its courses not placed yet
+        private final int[][] cliques;
+        private final int[] cliqueOf;
+        private final int[][] cliqueLoad;
+        private final int[] cliqueOpen;
+
+        // Per student (MIN_PENALTY only): exams of open courses, the least penalty those still add
+        // given the student's exams so far, and the sum of those over the students. The bounds a
+        // placement replaced are kept on a stack, since taking it back brings them back exactly.
+        // Until a schedule is found there is nothing to cut against, and only the counts are kept.
+        private final int[] studentOpen;
+        private final int[] studentBound;
+        private int studentBoundSum;
+        private final int[] studentLoad;
+        // The bound by open exams and exams per day, while there are few of those (else null);
+        // a key is the open exams and then each day's exams as digits of base perDay + 1
+        private final int[] increaseMemo;
+        private int[] savedBounds = new int[0];
+        private int savedCount;
+
+        private int maxDay;
+        private int penalty;
+        private int basePenalty;
+        private boolean stopAtFirst;
+        private int solutionsFound;
+        private Exam[] best;
+
+        private final long deadline;
+        private boolean limitHit;
+
+        Search(PlacementEngine placement) {
+            this.placement = placement;
+            this.graph = placement.getConflictGraph();
+            this.schedule = placement.getSchedule();
+            this.courseCount = graph.size();
+            this.slotCount = placement.slotCount();
+
+            List<Slot> slots = placement.getSlots();
+            int maxDaySeen = 0;
+            int maxIndex = 0;
+            this.dayOf = new int[slotCount];
+            for (int s = 0; s < slotCount; s++) {
+                dayOf[s] = slots.get(s).getDay();
+                maxDaySeen = Math.max(maxDaySeen, dayOf[s]);
+                maxIndex = Math.max(maxIndex, slots.get(s).getIndex());
+            }
+            this.days = maxDaySeen;
+            this.slotsPerDay = maxIndex;
+            // symmetry breaking needs the full grid: every day with slots 1..slotsPerDay
+            boolean full = slotCount == days * slotsPerDay;
+            for (int s = 0; s < slotCount && full; s++) {
+                full = placement.slotOrdinal(new Slot(dayOf[s], slots.get(s).getIndex(), "")) == s;
+            }
+            this.symmetric = full;
+
+            List<Integer> open = new ArrayList<>();
+            for (int c = 0; c < courseCount; c++) {
+                if (!placement.isPlaced(c))
+                    open.add(c);
+            }
+            this.variables = new int[open.size()];
+            this.isVariable = new boolean[courseCount];
+            for (int i = 0; i < variables.length; i++) {
+                variables[i] = open.get(i);
+                isVariable[variables[i]] = true;
+            }
+            this.blocked = new int[courseCount][];
+            this.domainSize = new int[courseCount];
+            this.examsOnDay = new int[days + 1];
+
+            List<int[]> withOpen = new ArrayList<>();
+            if (objective == Objective.MIN_PENALTY) {
+                for (int[] clique : graph.disjointGreedyCliques()) {
+                    for (int c : clique) {
+                        if (isVariable[c]) {
+                            withOpen.add(clique);
+                            break;
+                        }
+                    }
+                }
+            }
+            this.cliques = withOpen.toArray(new int[0][]);
+            this.cliqueOf = new int[courseCount];
+            Arrays.fill(cliqueOf, -1);
+            for (int q = 0; q < cliques.length; q++) {
+                for (int c : cliques[q]) {
+                    cliqueOf[c] = q;
+                }
+            }
+            this.cliqueLoad = new int[cliques.length][days + 1];
+            this.cliqueOpen = new int[cliques.length];
+            int studentCount = 0;
+            if (objective == Objective.MIN_PENALTY) {
+                for (int c : variables) {
+                    for (int student : graph.getCourse(c).getStudentOrdinals()) {
+                        studentCount = Math.max(studentCount, student + 1);
+                    }
+                }
+            }
+            this.studentOpen = new int[studentCount];
+            this.studentBound = new int[studentCount];
+            this.studentLoad = new int[days + 1];
+            long memoSize = MEMO_LIMIT + 1;
+            if (studentCount > 0) {
+                int maxOpen = 0;
+                for (int c : variables) {
+                    for (int student : graph.getCourse(c).getStudentOrdinals()) {
+                        maxOpen = Math.max(maxOpen, ++studentOpen[student]);
+                    }
+                }
+                memoSize = maxOpen + 1;
+                for (int day = 1; day <= days && memoSize <= MEMO_LIMIT; day++) {
+                    memoSize *= LowerBounds.maxExamsPerDay(slotsPerDay) + 1;
+                }
+            }
+            this.increaseMemo = memoSize <= MEMO_LIMIT ? new int[(int) memoSize] : null;
+            if (increaseMemo != null)
+                Arrays.fill(increaseMemo, -1);
+            this.deadline = System.currentTimeMillis() + timeLimitMillis;
+            this.basePenalty = PenaltyEvaluator.evaluate(placement.getLoadTracker());
+        }
+
+        SchedulingResult run() {
+            bestValue = -1;
+            provenOptimal = false;
+            nodesExplored = 0;
+            maxDay = days;
+            reset();
+            lowerBound = objective == Objective.MIN_PENALTY
+                    ? Math.max(basePenalty + openBound(), LowerBounds.minimumPenalty(graph, days, slotsPerDay))
+                    : Math.max(usedDays(), LowerBounds.minimumDays(graph, slotsPerDay)); // exams placed before stay
+            if (incumbent != null)
+                loadIncumbent();
+
+            long roomRefusals = placement.getRoomRefusals();
+            try {
+                if (objective == Objective.MIN_PENALTY) {
+                    stopAtFirst = false;
+                    if (bestValue < 0 || bestValue > lowerBound) {
+                        reset();
+                        dfs();
+                    }
+                    if (!limitHit && placement.getRoomRefusals() == roomRefusals)
+                        lowerBound = bestValue < 0 ? lowerBound : bestValue;
+                } else {
+                    stopAtFirst = true;
+                    if (bestValue < 0) {
+                        reset();
+                        dfs();
+                    }
+                    while (bestValue > lowerBound && !limitHit) {
+                        maxDay = bestValue - 1;
+                        int before = solutionsFound;
+                        long refusalsBefore = placement.getRoomRefusals();
+                        reset();
+                        dfs();
+                        if (solutionsFound > before || limitHit)
+                            continue;
+                        if (placement.getRoomRefusals() != refusalsBefore)
+                            break; // none found within one day less, but that is no proof
+                        lowerBound = bestValue; // no schedule within one day less
+                    }
+                }
+            } catch (SolverStoppedException e) {
+                if (best == null)
+                    throw e;
+                limitHit = true;
+            }
+
+            maxDay = days;
+            reset();
+            if (best == null) {
+                if (limitHit) {
+                    throw new InfeasibleScheduleException("Search limit reached after " + nodesExplored
+                            + " nodes without finding a feasible schedule.", false);
+                }
+                if (placement.getRoomRefusals() != roomRefusals) {
+                    throw new InfeasibleScheduleException("No schedule found: the branch and bound search found none, "
+                            + "but some slots were refused only for lack of rooms, which are assigned greedily ("
+                            + nodesExplored + " nodes explored).", false);
+                }
+                throw new InfeasibleScheduleException("No feasible schedule exists: the branch and bound search found none ("
+                        + nodesExplored + " nodes explored).", true);
+            }
+            provenOptimal = bestValue <= lowerBound;
+            for (int c : variables) {
+                schedule.addExam(best[c]);
+            }
+            SchedulingResult result = new SchedulingResult(schedule);
+            if (objective == Objective.MIN_PENALTY)
+                result.setLowerBound(lowerBound);
+            return result;
+        }
+
+        // Returns true when the whole search should stop.
+        private boolean dfs() {
+            nodesExplored++;
+            if (nodesExplored > nodeLimit
+                    || ((nodesExplored & 1023) == 0 && System.currentTimeMillis() > deadline)) {
+                limitHit = true;
+                return true;
+            }
+
+            int c = selectCourse();
+            if (c < 0)
+                return recordSolution();
+            if (domainSize[c] == 0)
+                return false;
+            if (objective == Objective.MIN_PENALTY && bestValue >= 0
+                    && (penalty + studentBoundSum >= bestValue || penalty + cliqueBound() >= bestValue))
+                return false;
+
+            Course course = graph.getCourse(c);
+            int[] dayDelta = null;
+            List<Integer> candidates = new ArrayList<>();
+            for (int s = 0; s < slotCount; s++) {
+                if (blocked[c][s] == 0 && dayOf[s] <= maxDay && symmetryAllows(s))
+                    candidates.add(s);
+            }
+            if (objective == Objective.MIN_PENALTY) {
+                dayDelta = new int[days + 1];
+                Arrays.fill(dayDelta, -1);
+                for (int s : candidates) {
+                    if (dayDelta[dayOf[s]] < 0)
+                        dayDelta[dayOf[s]] = PenaltyEvaluator.moveDelta(placement.getLoadTracker(), course, 0, dayOf[s]);
+                }
+                final int[] deltas = dayDelta;
+                candidates.sort((a, b) -> Integer.compare(deltas[dayOf[a]], deltas[dayOf[b]]));
+            }
+            // the bounds of the students not in the course, which placing it leaves as they are
+            int othersBound = 0;
+            if (objective == Objective.MIN_PENALTY && bestValue >= 0) {
+                othersBound = studentBoundSum;
+                for (int student : course.getStudentOrdinals()) {
+                    othersBound -= studentBound[student];
+                }
+            }
+
+            for (int s : candidates) {
+                int delta = dayDelta == null ? 0 : dayDelta[dayOf[s]];
+                if (objective == Objective.MIN_PENALTY && bestValue >= 0
+                        && penalty + delta + othersBound >= bestValue)
+                    break; // sorted by delta, the rest cannot do better
+                Exam exam = placement.tryPlace(c, s);
+                if (exam == null)
+                    continue;
+                penalty += delta;
+                examsOnDay[dayOf[s]]++;
+                examCount++;
+                moveInClique(c, dayOf[s], 1);
+                boolean kept = placeForStudents(c);
+                boolean wipedOut = forwardCheck(c, s, 1);
+
+                if (!wipedOut && dfs())
+                    return true;
+
+                forwardCheck(c, s, -1);
+                moveInClique(c, dayOf[s], -1);
+                examCount--;
+                examsOnDay[dayOf[s]]--;
+                penalty -= delta;
+                schedule.removeExam(exam);
+                takeBackForStudents(c, kept);
+            }
+            return false;
+        }
+
+        private boolean recordSolution() {
+            solutionsFound++;
+            int value = objective == Objective.MIN_PENALTY ? penalty : usedDays();
+            if (bestValue < 0 || value < bestValue) {
+                boolean first = bestValue < 0;
+                bestValue = value;
+                if (first)
+                    boundStudents(); // kept from here on
+                saveBest();
+                SolverMonitor monitor = placement.getMonitor();
+                if (monitor != null && objective == Objective.MIN_PENALTY)
+                    monitor.penaltyFound(value);
+            }
+            return stopAtFirst || bestValue <= lowerBound;
+        }
+
+        private void saveBest() {
+            if (best == null)
+                best = new Exam[courseCount];
+            for (int c : variables) {
+                best[c] = placement.getExam(c);
+            }
+        }
+
+        // Least penalty the open courses still add, on top of the penalty so far (which never drops):
+        // summed over the students, or over the cliques, where every two exams on one day share a student.
+        private int openBound() {
+            return Math.max(cliqueBound(), studentBoundSum);
+        }
+
+        private int cliqueBound() {
+            int bound = 0;
+            for (int q = 0; q < cliques.length; q++) {
+                if (cliqueOpen[q] > 0)
+                    bound += LowerBounds.cliqueIncrease(cliqueLoad[q], maxDay, cliqueOpen[q], (slotsPerDay + 1) / 2);
+            }
+            return bound;
+        }
+
+        // After the exam of course c was placed, the bounds of its students. Returns whether they were kept.
+        private boolean placeForStudents(int c) {
+            if (studentOpen.length == 0)
+                return false;
+            int[] students = graph.getCourse(c).getStudentOrdinals();
+            if (bestValue < 0) {
+                for (int student : students) {
+                    studentOpen[student]--;
+                }
+                return false;
+            }
+            if (savedCount + students.length > savedBounds.length)
+                savedBounds = Arrays.copyOf(savedBounds,
+                        Math.max(2 * savedBounds.length, savedCount + students.length));
+            for (int student : students) {
+                int before = studentBound[student];
+                savedBounds[savedCount++] = before;
+                studentOpen[student]--;
+                studentBoundSum += studentIncrease(student) - before;
+            }
+            return true;
+        }
+
+        // After the exam of course c was taken back, the bounds its placement replaced, or new ones
+        // if it did not keep them and a schedule has been found since.
+        private void takeBackForStudents(int c, boolean kept) {
+            if (studentOpen.length == 0)
+                return;
+            int[] students = graph.getCourse(c).getStudentOrdinals();
+            for (int i = students.length - 1; i >= 0; i--) {
+                int student = students[i];
+                int before = studentBound[student];
+                studentOpen[student]++;
+                if (kept)
+                    studentBound[student] = savedBounds[--savedCount];
+                else if (bestValue >= 0)
+                    studentIncrease(student);
+                studentBoundSum += studentBound[student] - before;
+            }
+        }
+
+        // The bounds of all students for the exams placed now.
+        private void boundStudents() {
+            studentBoundSum = 0;
+            for (int student = 0; student < studentOpen.length; student++) {
+                studentBoundSum += studentIncrease(student);
+            }
+        }
+
+        // Recomputes and returns the bound of one student.
+        private int studentIncrease(int student) {
+            int open = studentOpen[student];
+            int bound = 0;
+            if (open > 0) {
+                StudentLoadTracker loads = placement.getLoadTracker();
+                int perDay = LowerBounds.maxExamsPerDay(slotsPerDay);
+                int key = open;
+                boolean memo = increaseMemo != null;
+                for (int day = 1; day <= maxDay; day++) {
+                    studentLoad[day] = loads.getCount(student, day);
+                    memo &= studentLoad[day] <= perDay;
+                    key = key * (perDay + 1) + studentLoad[day];
+                }
+                if (!memo) {
+                    bound = LowerBounds.studentIncrease(studentLoad, maxDay, open, perDay);
+                } else {
+                    if (increaseMemo[key] < 0)
+                        increaseMemo[key] = LowerBounds.studentIncrease(studentLoad, maxDay, open, perDay);
+                    bound = increaseMemo[key];
+                }
+            }
+            studentBound[student] = bound;
+            return bound;
+        }
+
+        // Places (sign 1) or takes back (sign -1) the exam of course c on the day in its clique.
+        private void moveInClique(int c, int day, int sign) {
+            int q = cliqueOf[c];
+            if (q < 0)
+                return;
+            cliqueLoad[q][day] += sign;
+            cliqueOpen[q] -= sign;
+        }
+
+        // Smallest live domain first, then the most conflicting course.
+        private int selectCourse() {
+            int pick = -1;
+            for (int c : variables) {
+                if (placement.isPlaced(c))
+                    continue;
+                if (pick < 0 || domainSize[c] < domainSize[pick]
+                        || (domainSize[c] == domainSize[pick] && graph.degree(c) > graph.degree(pick)))
+                    pick = c;
+            }
+            return pick;
+        }
+
+        private boolean symmetryAllows(int slot) {
+            int day = dayOf[slot];
+            if (!symmetric || examsOnDay[day] > 0)
+                return true;
+            int index = placement.getSlots().get(slot).getIndex();
+            if (index > (slotsPerDay + 1) / 2)
+                return false;
+            if (objective == Objective.MIN_DAYS) {
+                for (int d = 1; d < day; d++) {
+                    if (examsOnDay[d] == 0)
+                        return false;
+                }
+                return true;
+            }
+            return examCount > 0 || day <= (days + 1) / 2;
+        }
+
+        // Adds (sign 1) or takes back (sign -1) the slots the placement rules out for the open neighbours.
+        // Returns true if some neighbour has no slot left.
+        private boolean forwardCheck(int c, int slot, int sign) {
+            int previous = placement.previousSlot(slot);
+            int next = placement.nextSlot(slot);
+            boolean wipedOut = false;
+            for (int v : graph.neighbours(c)) {
+                if (!isVariable[v] || placement.isPlaced(v))
+                    continue;
+                block(v, slot, sign);
+                if (previous >= 0)
+                    block(v, previous, sign);
+                if (next >= 0)
+                    block(v, next, sign);
+                if (domainSize[v] == 0)
+                    wipedOut = true;
+            }
+            return wipedOut;
+        }
+
+        private void block(int v, int slot, int sign) {
+            int before = blocked[v][slot];
+            blocked[v][slot] += sign;
+            if (dayOf[slot] > maxDay)
+                return;
+            if (before == 0 && sign > 0)
+                domainSize[v]--;
+            else if (before == 1 && sign < 0)
+                domainSize[v]++;
+        }
+
+        // Back to only the exams that were there before the search, with fresh domains.
+        private void reset() {
+            for (int c : variables) {
+                placement.remove(c);
+            }
+            Arrays.fill(examsOnDay, 0);
+            examCount = 0;
+            for (Exam exam : schedule.getAllExams()) {
+                int s = placement.slotOrdinal(exam.getSlot());
+                if (s >= 0) {
+                    examsOnDay[dayOf[s]]++;
+                    examCount++;
+                }
+            }
+            penalty = basePenalty;
+            for (int q = 0; q < cliques.length; q++) {
+                Arrays.fill(cliqueLoad[q], 0);
+                cliqueOpen[q] = 0;
+            }
+            for (int c = 0; c < courseCount; c++) {
+                int q = cliqueOf[c];
+                if (q < 0)
+                    continue;
+                if (placement.isPlaced(c))
+                    cliqueLoad[q][dayOf[placement.slotOf(c)]]++;
+                else
+                    cliqueOpen[q]++;
+            }
+            Arrays.fill(studentOpen, 0);
+            for (int c : variables) {
+                for (int student : graph.getCourse(c).getStudentOrdinals()) {
+                    if (student < studentOpen.length)
+                        studentOpen[student]++;
+                }
+            }
+            savedCount = 0;
+            boundStudents();
+
+            List<Slot> slots = placement.getSlots();
+            for (int c : variables) {
+                if (blocked[c] == null)
+                    blocked[c] = new int[slotCount];
+                int seats = graph.getCourse(c).getStudentCount();
+                domainSize[c] = 0;
+                for (int s = 0; s < slotCount; s++) {
+                    boolean allowed = placement.isStudentFeasible(c, s)
+                            && placement.getOccupancy().freeCapacity(slots.get(s)) >= seats;
+                    blocked[c][s] = allowed ? 0 : 1;
+                    if (allowed && dayOf[s] <= maxDay)
+                        domainSize[c]++;
+                }
+            }
+        }
+
+        // Takes over the incumbent if it places every open course validly.
+        private void loadIncumbent() {
+            List<Exam> added = new ArrayList<>();
+            boolean valid = true;
+            for (int c : variables) {
+                Exam exam = incumbent.getExamByCourse(graph.getCourse(c).getCourseCode());
+                int s = exam == null ? -1 : placement.slotOrdinal(exam.getSlot());
+                if (s < 0 || !placement.isStudentFeasible(c, s) || exam.getAssignedRooms() == null
+                        || placement.getOccupancy().anyOccupied(placement.getSlots().get(s), exam.getAssignedRooms())) {
+                    valid = false;
+                    break;
+                }
+                Exam copy = new Exam(graph.getCourse(c), placement.getSlots().get(s), exam.getAssignedRooms());
+                schedule.addExam(copy);
+                added.add(copy);
+            }
+            if (valid) {
+                bestValue = objective == Objective.MIN_PENALTY
+                        ? PenaltyEvaluator.evaluate(placement.getLoadTracker())
+                        : usedDays();
+                saveBest();
+            }
+            for (Exam exam : added) {
+                schedule.removeExam(exam);
+            }
+        }
+
+        private int usedDays() {
+            int used = 0;
+            for (Exam exam : schedule.getAllExams()) {
+                used = Math.max(used, exam.getSlot().getDay());
+            }
+            return used;
+        }
+    }
+}
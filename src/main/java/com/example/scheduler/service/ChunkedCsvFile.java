@@ -0,0 +1,149 @@
+package com.example.scheduler.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+// A CSV file read into one heap buffer and cut into byte ranges that start on a line, so each range
+// can be decoded and parsed on its own. The ranges are views on that buffer; cutting copies nothing.
+// The file is read through a channel rather than mapped: a mapping is only released when it is
+// garbage collected, and until then Windows will not let the CSV be edited, replaced or deleted.
+public class ChunkedCsvFile {
+
+    private static final byte[] COURSE_PREFIX = "CourseCode_".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer bytes;
+
+    private ChunkedCsvFile(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    public static ChunkedCsvFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException(path + " is too large to read (" + size + " bytes).");
+            ByteBuffer bytes = ByteBuffer.allocate((int) size);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes) < 0)
+                    break; // the file shrank while it was read
+            }
+            return new ChunkedCsvFile(bytes.flip());
+        }
+    }
+
+    // Ranges of about chunkBytes, each ending after a line break. The first non-blank line (the
+    // header) is always in the first range.
+    public List<ByteBuffer> lineChunks(int chunkBytes) {
+        int limit = bytes.limit();
+        int p = 0;
+        while (p < limit && (isBlank(bytes.get(p)) || isBreak(bytes.get(p)))) {
+            p++;
+        }
+        while (p < limit && !isBreak(bytes.get(p))) {
+            p++;
+        }
+        int headerEnd = p;
+        return cut(chunkBytes, start -> start > headerEnd);
+    }
+
+    // Ranges of about chunkBytes of the attendance-list format, each starting on a course line that
+    // is not itself the list of the course line before it, so every chunk parses as if the file
+    // were read from the top.
+    public List<ByteBuffer> attendanceChunks(int chunkBytes) {
+        return cut(chunkBytes, p -> isCourseLine(p) && !isCourseLine(previousLine(p)));
+    }
+
+    // The trimmed, non-empty lines of a range; line breaks are \n, \r or \r\n.
+    public static List<String> nonEmptyLines(ByteBuffer chunk) throws CharacterCodingException {
+        CharBuffer chars = StandardCharsets.UTF_8.newDecoder().decode(chunk.duplicate());
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        int end = chars.limit();
+        for (int i = 0; i <= end; i++) {
+            if (i < end && chars.get(i) != '\n' && chars.get(i) != '\r')
+                continue;
+            String line = chars.subSequence(start, i).toString().trim();
+            if (!line.isEmpty())
+                lines.add(line);
+            start = i + 1;
+        }
+        return lines;
+    }
+
+    private List<ByteBuffer> cut(int chunkBytes, IntPredicate boundary) {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        int limit = bytes.limit();
+        int start = 0;
+        while (start < limit) {
+            int end = (long) start + chunkBytes >= limit ? limit : nextBoundary(start + chunkBytes, boundary);
+            chunks.add(bytes.slice(start, end - start));
+            start = end;
+        }
+        return chunks;
+    }
+
+    // First line start at or after from that the predicate accepts, or the end of the file.
+    private int nextBoundary(int from, IntPredicate boundary) {
+        int limit = bytes.limit();
+        for (int p = Math.max(1, from); p < limit; p++) {
+            if (bytes.get(p - 1) == '\n' && boundary.test(p))
+                return p;
+        }
+        return limit;
+    }
+
+    // Whether the line starting at p, trimmed, starts with the course prefix.
+    private boolean isCourseLine(int p) {
+        if (p < 0)
+            return false;
+        int limit = bytes.limit();
+        while (p < limit && isBlank(bytes.get(p))) {
+            p++;
+        }
+        if (limit - p < COURSE_PREFIX.length)
+            return false;
+        for (int i = 0; i < COURSE_PREFIX.length; i++) {
+            if (bytes.get(p + i) != COURSE_PREFIX[i])
+                return false;
+        }
+        return true;
+    }
+
+    // Start of the last non-blank line before the line starting at p, or -1 if there is none.
+    private int previousLine(int p) {
+        int end = p;
+        while (end > 0) {
+            while (end > 0 && isBreak(bytes.get(end - 1))) {
+                end--;
+            }
+            int start = end;
+            boolean blank = true;
+            while (start > 0 && !isBreak(bytes.get(start - 1))) {
+                start--;
+                blank &= isBlank(bytes.get(start));
+            }
+            if (!blank)
+                return start;
+            end = start;
+        }
+        return -1;
+    }
+
+    private static boolean isBreak(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    // Whitespace as String.trim sees it, other than line breaks
+    private static boolean isBlank(byte b) {
+        return b >= 0 && b <= ' ' && !isBreak(b);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.Course;
+import com.example.scheduler.model.Exam;
+import com.example.scheduler.model.Schedule;
+import com.example.scheduler.model.SchedulingResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Splits the conflict graph into connected components (course groups that share no student, e.g.
+// different faculties) and lets the inner strategy solve them in parallel. The components are dealt
+// into at most parallelism jobs of about equal size, each solved on its own engine: every engine
+// holds a load tracker over all students and a full occupancy grid, so one per component would
+// cost far more than it saves, and fewer parts also compete less for rooms. The parts are merged
+// job by job, largest first: an exam keeps its slot if the slot still has enough free rooms,
+// otherwise it is left out and the inner strategy places the leftovers on the merged schedule.
+// If that fails, the whole graph is solved in one piece.
+public class ComponentStrategy implements SchedulingStrategy {
+
+    private final SchedulingStrategy inner;
+    private final int parallelism;
+
+    public ComponentStrategy(SchedulingStrategy inner, int parallelism) {
+        this.inner = inner;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public String getName() {
+        return inner.getName() + " (per component)";
+    }
+
+    @Override
+    public SchedulingResult schedule(PlacementEngine placement) {
+        ConflictGraph graph = placement.getConflictGraph();
+        // exams placed before would constrain the parts, so only split a fresh schedule
+        if (placement.placedCount() > 0)
+            return inner.schedule(placement);
+        List<List<Course>> jobs = group(graph, graph.connectedComponents());
+        if (jobs.size() < 2)
+            return inner.schedule(placement);
+
+        List<Schedule> parts = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(jobs.size());
+        try {
+            List<Future<Schedule>> tasks = new ArrayList<>();
+            for (List<Course> job : jobs) {
+                tasks.add(pool.submit(() -> solvePart(placement, job)));
+            }
+            for (Future<Schedule> task : tasks) {
+                parts.add(await(task));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (Schedule part : parts) {
+            for (Exam exam : part.getAllExams()) {
+                placement.tryPlace(graph.indexOf(exam.getCourse()), placement.slotOrdinal(exam.getSlot()));
+            }
+        }
+        if (!placement.isComplete()) {
+            try {
+                inner.schedule(placement);
+            } catch (SolverStoppedException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // the merged exams stayed fixed in that pass and may hold the rooms the leftovers
+                // need: start over on the whole graph, so splitting never loses a schedule
+                for (int c = 0; c < graph.size(); c++) {
+                    if (placement.isPlaced(c))
+                        placement.remove(c);
+                }
+                return inner.schedule(placement);
+            }
+        }
+
+        return new SchedulingResult(placement.getSchedule());
+    }
+
+    // Deals the components, largest first, to the job with the fewest courses so far; returns the
+    // non-empty jobs, largest first.
+    private List<List<Course>> group(ConflictGraph graph, int[][] components) {
+        int jobCount = Math.max(1, Math.min(parallelism, components.length));
+        List<List<Course>> jobs = new ArrayList<>();
+        for (int j = 0; j < jobCount; j++) {
+            jobs.add(new ArrayList<>());
+        }
+        for (int[] component : components) {
+            List<Course> smallest = jobs.get(0);
+            for (List<Course> job : jobs) {
+                if (job.size() < smallest.size())
+                    smallest = job;
+            }
+            for (int c : component) {
+                smallest.add(graph.getCourse(c));
+            }
+        }
+        jobs.removeIf(List::isEmpty);
+        jobs.sort((a, b) -> Integer.compare(b.size(), a.size()));
+        return jobs;
+    }
+
+    private Schedule solvePart(PlacementEngine placement, List<Course> courses) {
+        PlacementEngine part = placement.createFor(new ConflictGraph(courses));
+        try {
+            inner.schedule(part);
+            return part.getSchedule();
+        } finally {
+            part.detach();
+        }
+    }
+
+    // Waits for a part and rethrows its failure unchanged.
+    private static Schedule await(Future<Schedule> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolverStoppedException("Scheduling was interrupted.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.Course;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Course conflict graph: two courses are adjacent when they share at least one student.
+// Built once per scheduling run, so the engine can test conflicts with a single bit lookup.
+public class ConflictGraph {
+
+    private final List<Course> courses;
+    private final Map<String, Integer> indexByCode = new HashMap<>();
+
+    // adjacency[i] is a bitset over course indices
+    private final long[][] adjacency;
+    // sorted neighbour indices of each course and the number of students shared with each
+    private final int[][] neighbours;
+    private final int[][] weights;
+
+    // connectedComponents, computed on first use; the graph never changes after construction
+    private volatile int[][] components;
+
+    public ConflictGraph(Collection<Course> courseCollection) {
+        this.courses = new ArrayList<>(courseCollection);
+        int n = courses.size();
+        int words = (n + 63) >>> 6;
+
+        this.adjacency = new long[n][words];
+        this.neighbours = new int[n][];
+        this.weights = new int[n][];
+
+        for (int i = 0; i < n; i++) {
+            indexByCode.put(courses.get(i).getCourseCode(), i);
+        }
+
+        int studentBound = 0;
+        for (Course c : courses) {
+            int[] ordinals = c.getStudentOrdinals();
+            if (ordinals.length > 0)
+                studentBound = Math.max(studentBound, ordinals[ordinals.length - 1] + 1);
+        }
+
+        // student ordinal -> indices of the courses the student takes
+        IndexList[] coursesOfStudent = new IndexList[studentBound];
+        for (int i = 0; i < n; i++) {
+            for (int student : courses.get(i).getStudentOrdinals()) {
+                if (coursesOfStudent[student] == null)
+                    coursesOfStudent[student] = new IndexList();
+                coursesOfStudent[student].add(i);
+            }
+        }
+
+        int[] shared = new int[n];
+        int[] touched = new int[n];
+        for (int i = 0; i < n; i++) {
+            int touchedCount = 0;
+            for (int student : courses.get(i).getStudentOrdinals()) {
+                IndexList list = coursesOfStudent[student];
+                for (int k = 0; k < list.size; k++) {
+                    int j = list.items[k];
+                    if (j == i)
+                        continue;
+                    if (shared[j]++ == 0) {
+                        touched[touchedCount++] = j;
+                    }
+                }
+            }
+
+            Arrays.sort(touched, 0, touchedCount);
+            int[] adj = new int[touchedCount];
+            int[] w = new int[touchedCount];
+            for (int k = 0; k < touchedCount; k++) {
+                int j = touched[k];
+                adj[k] = j;
+                w[k] = shared[j];
+                adjacency[i][j >>> 6] |= 1L << j;
+                shared[j] = 0;
+            }
+            neighbours[i] = adj;
+            weights[i] = w;
+        }
+    }
+
+    public int size() {
+        return courses.size();
+    }
+
+    // Returns -1 if the course is not part of the graph.
+    public int indexOf(String courseCode) {
+        Integer idx = indexByCode.get(courseCode);
+        return idx == null ? -1 : idx;
+    }
+
+    public int indexOf(Course course) {
+        return indexOf(course.getCourseCode());
+    }
+
+    public Course getCourse(int index) {
+        return courses.get(index);
+    }
+
+    public boolean conflicts(int a, int b) {
+        return (adjacency[a][b >>> 6] & (1L << b)) != 0;
+    }
+
+    public boolean conflicts(Course a, Course b) {
+        int i = indexOf(a);
+        int j = indexOf(b);
+        if (i < 0 || j < 0)
+            return false;
+        return conflicts(i, j);
+    }
+
+    // Number of students taking both courses (the edge weight), 0 if they do not conflict.
+    public int sharedStudents(int a, int b) {
+        if (!conflicts(a, b))
+            return 0;
+        int pos = Arrays.binarySearch(neighbours[a], b);
+        return pos < 0 ? 0 : weights[a][pos];
+    }
+
+    public int[] neighbours(int index) {
+        return neighbours[index];
+    }
+
+    public int[] weights(int index) {
+        return weights[index];
+    }
+
+    public int degree(int index) {
+        return neighbours[index].length;
+    }
+
+    public long[] adjacencyRow(int index) {
+        return adjacency[index];
+    }
+
+    // Course indices of each connected component, largest component first. Courses in different
+    // components share no student, so they never constrain each other except through rooms.
+    // The arrays are shared between callers and must not be modified.
+    public int[][] connectedComponents() {
+        int[][] cached = components;
+        if (cached == null) {
+            cached = findComponents();
+            components = cached;
+        }
+        return cached;
+    }
+
+    private int[][] findComponents() {
+        int n = courses.size();
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] queue = new int[n];
+        List<int[]> result = new ArrayList<>();
+
+        for (int start = 0; start < n; start++) {
+            if (component[start] >= 0)
+                continue;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            component[start] = result.size();
+            while (head < tail) {
+                int u = queue[head++];
+                for (int v : neighbours[u]) {
+                    if (component[v] < 0) {
+                        component[v] = result.size();
+                        queue[tail++] = v;
+                    }
+                }
+            }
+            int[] members = Arrays.copyOf(queue, tail);
+            Arrays.sort(members);
+            result.add(members);
+        }
+
+        result.sort((a, b) -> Integer.compare(b.length, a.length));
+        return result.toArray(new int[0][]);
+    }
+
+    // The largest of the cliques grown greedily from every course: starting from the course, keep
+    // adding the candidate with the most conflicts that conflicts with every member so far.
+    // A clique of k courses needs k slots that are pairwise neither equal nor adjacent.
+    public int[] largestGreedyClique() {
+        int[] best = new int[0];
+        long[] all = new long[(courses.size() + 63) >>> 6];
+        for (int i = 0; i < courses.size(); i++) {
+            all[i >>> 6] |= 1L << i;
+        }
+        for (int start = 0; start < courses.size(); start++) {
+            if (degree(start) < best.length)
+                continue; // cannot beat the best clique
+            int[] clique = greedyClique(start, all);
+            if (clique.length > best.length)
+                best = clique;
+        }
+        return best;
+    }
+
+    // Cliques with no course in common, grown greedily from the courses with the most conflicts.
+    public List<int[]> disjointGreedyCliques() {
+        int n = courses.size();
+        long[] unused = new long[(n + 63) >>> 6];
+        for (int i = 0; i < n; i++) {
+            unused[i >>> 6] |= 1L << i;
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(degree(b), degree(a)));
+
+        List<int[]> cliques = new ArrayList<>();
+        for (int start : order) {
+            if ((unused[start >>> 6] & (1L << start)) == 0 || degree(start) == 0)
+                continue;
+            int[] clique = greedyClique(start, unused);
+            if (clique.length < 2)
+                continue;
+            for (int c : clique) {
+                unused[c >>> 6] &= ~(1L << c);
+            }
+            cliques.add(clique);
+        }
+        return cliques;
+    }
+
+    private int[] greedyClique(int start, long[] allowed) {
+        long[] candidates = new long[allowed.length];
+        long[] row = adjacency[start];
+        for (int w = 0; w < candidates.length; w++) {
+            candidates[w] = row[w] & allowed[w];
+        }
+        IndexList clique = new IndexList();
+        clique.add(start);
+        while (true) {
+            int pick = -1;
+            for (int w = 0; w < candidates.length; w++) {
+                long bits = candidates[w];
+                while (bits != 0) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (pick < 0 || degree(v) > degree(pick))
+                        pick = v;
+                }
+            }
+            if (pick < 0)
+                break;
+            clique.add(pick);
+            long[] pickRow = adjacency[pick];
+            for (int w = 0; w < candidates.length; w++) {
+                candidates[w] &= pickRow[w];
+            }
+        }
+        return Arrays.copyOf(clique.items, clique.size);
+    }
+
+    private static final class IndexList {
+        int[] items = new int[4];
+        int size;
+
+        void add(int index) {
+            if (size == items.length)
+                items = Arrays.copyOf(items, size * 2);
+            items[size++] = index;
+        }
+    }
+}
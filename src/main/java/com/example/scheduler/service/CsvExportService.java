@@ -1,16 +1,45 @@
 package com.example.scheduler.service;
 
 import com.example.scheduler.model.*;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+// Writes a schedule out as CSV. Rows go straight to a buffered writer instead of being collected
+// first, and the per-student and per-slot exports look exams up in an ExamIndex, so every export is
+// a single pass over its own output.
 public class CsvExportService {
 
+    public static final String BY_COURSE_FILE = "schedule_by_course.csv";
+    public static final String BY_ROOM_FILE = "schedule_by_room.csv";
+    public static final String BY_STUDENT_FILE = "schedule_by_student.csv";
+    public static final String BY_DAY_SLOT_FILE = "schedule_by_day_slot.csv";
+
+    // exportAll hands text from each view to its writer in blocks of this many chars, with at most
+    // QUEUE_BLOCKS waiting per view, so a slow disk holds back the formatting instead of filling memory.
+    private static final int BLOCK_CHARS = 1 << 16;
+    private static final int QUEUE_BLOCKS = 16;
+    private static final CharBuffer END = CharBuffer.allocate(0);
+
     private final DataRepository repo;
 
     public CsvExportService(DataRepository repo) {
@@ -19,94 +48,392 @@ public class CsvExportService {
 
     // Schedule by Course
     public void exportByCourse(Schedule schedule, Path out) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("CourseCode;Day;SlotIndex;TimeRange;Rooms");
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            writeByCourse(schedule.getAllExams(), w);
+        }
+    }
 
-        for (Exam e : schedule.getAllExams()) {
-            String rooms = e.getAssignedRooms().stream()
-                    .map(Classroom::getRoomId)
-                    .collect(Collectors.joining(","));
+    // Schedule by Room
+    public void exportByRoom(Schedule schedule, Path out) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            writeByRoom(schedule.getAllExams(), w);
+        }
+    }
 
-            Slot s = e.getSlot();
-            lines.add(e.getCourse().getCourseCode() + ";" +
-                    s.getDay() + ";" +
-                    s.getIndex() + ";" +
-                    s.getTimeRange() + ";" +
-                    rooms);
+    // Schedule by Student
+    public void exportByStudent(Schedule schedule, Path out) throws IOException {
+        ExamIndex index = new ExamIndex(schedule, repo.getStudentIndex());
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            writeByStudent(index, w);
         }
+    }
 
-        Files.write(out, lines, StandardCharsets.UTF_8);
+    // Schedule by Day/Slot
+    public void exportByDaySlot(Schedule schedule, Path out) throws IOException {
+        ExamIndex index = ExamIndex.bySlot(schedule);
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            writeByDaySlot(index, w);
+        }
     }
 
-    // Schedule by Room
-    public void exportByRoom(Schedule schedule, Path out) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("RoomId;Day;SlotIndex;TimeRange;CourseCode");
+    // All four exports, with the schedule walked once (to build the ExamIndex they share). Each view
+    // is formatted on its own thread and written to its file in the directory by another, through a
+    // bounded queue. Returns the rows, bytes and time per file.
+    public ExportReport exportAll(Schedule schedule, Path directory) throws IOException {
+        long start = System.currentTimeMillis();
+        List<Feed> feeds = feeds(schedule);
+        ExportReport report = new ExportReport();
+        ExecutorService pool = Executors.newFixedThreadPool(2 * feeds.size());
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Feed feed : feeds) {
+                tasks.add(pool.submit(feed::format));
+            }
+            for (Feed feed : feeds) {
+                tasks.add(pool.submit(() -> {
+                    OutputStream out;
+                    try {
+                        out = Files.newOutputStream(directory.resolve(feed.name));
+                    } catch (IOException e) {
+                        feed.discard();
+                        throw e;
+                    }
+                    try (out) {
+                        feed.bytes = feed.drainTo(out);
+                    }
+                    feed.millis = System.currentTimeMillis() - start;
+                    return null;
+                }));
+            }
+            awaitAll(tasks);
+        } finally {
+            pool.shutdownNow();
+        }
+        for (Feed feed : feeds) {
+            report.add(feed.name, feed.rows, feed.bytes, feed.millis);
+        }
+        report.setTotalMillis(System.currentTimeMillis() - start);
+        return report;
+    }
 
-        for (Exam e : schedule.getAllExams()) {
-            Slot s = e.getSlot();
-            for (Classroom room : e.getAssignedRooms()) {
-                lines.add(room.getRoomId() + ";" +
-                        s.getDay() + ";" +
-                        s.getIndex() + ";" +
-                        s.getTimeRange() + ";" +
-                        e.getCourse().getCourseCode());
+    // Same, as the four entries of one zip file.
+    public ExportReport exportAllZipped(Schedule schedule, Path zipFile) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(zipFile))) {
+            return exportAllZipped(schedule, out);
+        }
+    }
+
+    // Same, as the four entries of a zip written to the stream, which is finished but not closed.
+    // The views are still formatted in parallel; this thread writes the entries one after another.
+    public ExportReport exportAllZipped(Schedule schedule, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        List<Feed> feeds = feeds(schedule);
+        ExportReport report = new ExportReport();
+        ExecutorService pool = Executors.newFixedThreadPool(feeds.size());
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (Feed feed : feeds) {
+                tasks.add(pool.submit(feed::format));
             }
+            ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            for (Feed feed : feeds) {
+                zip.putNextEntry(new ZipEntry(feed.name));
+                long bytes = feed.drainTo(zip);
+                zip.closeEntry();
+                report.add(feed.name, feed.rows, bytes, System.currentTimeMillis() - start);
+            }
+            zip.finish();
+            awaitAll(tasks);
+        } finally {
+            pool.shutdownNow();
         }
+        report.setTotalMillis(System.currentTimeMillis() - start);
+        return report;
+    }
 
-        Files.write(out, lines, StandardCharsets.UTF_8);
+    private List<Feed> feeds(Schedule schedule) {
+        ExamIndex index = new ExamIndex(schedule, repo.getStudentIndex());
+        List<Feed> feeds = new ArrayList<>();
+        feeds.add(new Feed(BY_COURSE_FILE, w -> writeByCourse(index.getExams(), w)));
+        feeds.add(new Feed(BY_ROOM_FILE, w -> writeByRoom(index.getExams(), w)));
+        feeds.add(new Feed(BY_STUDENT_FILE, w -> writeByStudent(index, w)));
+        feeds.add(new Feed(BY_DAY_SLOT_FILE, w -> writeByDaySlot(index, w)));
+        return feeds;
     }
 
-    // Schedule by Student
-    public void exportByStudent(Schedule schedule, Path out) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("StudentId;CourseCode;Day;SlotIndex;TimeRange;Rooms");
+    // Waits for every task and rethrows the first failure as it was thrown.
+    private static void awaitAll(List<Future<?>> tasks) throws IOException {
+        Throwable failure = null;
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Export was interrupted.", e);
+            } catch (ExecutionException e) {
+                if (failure == null)
+                    failure = e.getCause();
+            }
+        }
+        if (failure instanceof IOException)
+            throw (IOException) failure;
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        if (failure != null)
+            throw new IOException(failure);
+    }
 
-        for (Student student : repo.getStudents().values()) {
-            String stdId = student.getStudentId();
+    // Returns the number of rows written, not counting the header; the same for the others.
+    long writeByCourse(Collection<Exam> exams, Writer w) throws IOException {
+        long rows = 0;
+        line(w, "CourseCode;Day;SlotIndex;TimeRange;Rooms");
+        for (Exam e : exams) {
+            w.write(e.getCourse().getCourseCode());
+            w.write(';');
+            slot(w, e.getSlot());
+            w.write(';');
+            rooms(w, e.getAssignedRooms());
+            newLine(w);
+            rows++;
+        }
+        return rows;
+    }
 
-            for (Exam e : schedule.getAllExams()) {
-                if (e.getCourse().getStudentIds().contains(stdId)) {
+    long writeByRoom(Collection<Exam> exams, Writer w) throws IOException {
+        long rows = 0;
+        line(w, "RoomId;Day;SlotIndex;TimeRange;CourseCode");
+        for (Exam e : exams) {
+            for (Classroom room : e.getAssignedRooms()) {
+                w.write(room.getRoomId());
+                w.write(';');
+                slot(w, e.getSlot());
+                w.write(';');
+                w.write(e.getCourse().getCourseCode());
+                newLine(w);
+                rows++;
+            }
+        }
+        return rows;
+    }
 
-                    Slot s = e.getSlot();
-                    String rooms = e.getAssignedRooms().stream()
-                            .map(Classroom::getRoomId)
-                            .collect(Collectors.joining(","));
+    long writeByStudent(ExamIndex index, Writer w) throws IOException {
+        long rows = 0;
+        line(w, "StudentId;CourseCode;Day;SlotIndex;TimeRange;Rooms");
+        StudentIndex students = repo.getStudentIndex();
+        for (Student student : repo.getStudents().values()) {
+            String stdId = student.getStudentId();
+            int ordinal = students.indexOf(stdId);
+            int count = index.examCount(ordinal);
+            for (int i = 0; i < count; i++) {
+                Exam e = index.examOf(ordinal, i);
+                w.write(stdId);
+                w.write(';');
+                w.write(e.getCourse().getCourseCode());
+                w.write(';');
+                slot(w, e.getSlot());
+                w.write(';');
+                rooms(w, e.getAssignedRooms());
+                newLine(w);
+                rows++;
+            }
+        }
+        return rows;
+    }
 
-                    lines.add(stdId + ";" +
-                            e.getCourse().getCourseCode() + ";" +
-                            s.getDay() + ";" +
-                            s.getIndex() + ";" +
-                            s.getTimeRange() + ";" +
-                            rooms);
+    long writeByDaySlot(ExamIndex index, Writer w) throws IOException {
+        long rows = 0;
+        line(w, "Day;SlotIndex;TimeRange;RoomId;CourseCode");
+        for (Slot slot : repo.getSlots()) {
+            for (Exam e : index.examsIn(slot)) {
+                for (Classroom room : e.getAssignedRooms()) {
+                    slot(w, slot);
+                    w.write(';');
+                    w.write(room.getRoomId());
+                    w.write(';');
+                    w.write(e.getCourse().getCourseCode());
+                    newLine(w);
+                    rows++;
                 }
             }
         }
+        return rows;
+    }
 
-        Files.write(out, lines, StandardCharsets.UTF_8);
+    // Day;SlotIndex;TimeRange
+    private static void slot(Writer w, Slot s) throws IOException {
+        w.write(Integer.toString(s.getDay()));
+        w.write(';');
+        w.write(Integer.toString(s.getIndex()));
+        w.write(';');
+        w.write(String.valueOf(s.getTimeRange()));
     }
 
-    // Schedule by Day/Slot
-    public void exportByDaySlot(Schedule schedule, Path out) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("Day;SlotIndex;TimeRange;RoomId;CourseCode");
+    private static void rooms(Writer w, List<Classroom> rooms) throws IOException {
+        for (int i = 0; i < rooms.size(); i++) {
+            if (i > 0)
+                w.write(',');
+            w.write(rooms.get(i).getRoomId());
+        }
+    }
 
-        for (Slot slot : repo.getSlots()) {
-            for (Exam e : schedule.getAllExams()) {
-                if (e.getSlot().getDay() == slot.getDay() &&
-                        e.getSlot().getIndex() == slot.getIndex()) {
-
-                    for (Classroom room : e.getAssignedRooms()) {
-                        lines.add(slot.getDay() + ";" +
-                                slot.getIndex() + ";" +
-                                slot.getTimeRange() + ";" +
-                                room.getRoomId() + ";" +
-                                e.getCourse().getCourseCode());
+    private static void line(Writer w, String text) throws IOException {
+        w.write(text);
+        newLine(w);
+    }
+
+    // Same line ends as Files.write
+    private static void newLine(Writer w) throws IOException {
+        w.write(System.lineSeparator());
+    }
+
+    private interface View {
+        long write(Writer w) throws IOException;
+    }
+
+    // One exported file: its view is formatted into char blocks on a bounded queue by one thread
+    // and drained by another. The formatter always ends with END, even when it fails, and the
+    // drain keeps taking blocks after a write error, so neither side can be left waiting.
+    private static final class Feed {
+        final String name;
+        final View view;
+        final BlockingQueue<CharBuffer> queue = new ArrayBlockingQueue<>(QUEUE_BLOCKS);
+        volatile long rows;
+        volatile long bytes;
+        volatile long millis;
+
+        Feed(String name, View view) {
+            this.name = name;
+            this.view = view;
+        }
+
+        Void format() throws IOException {
+            try (Writer w = new QueueWriter(queue)) {
+                rows = view.write(w);
+            }
+            return null;
+        }
+
+        // Takes the blocks until END without writing them, so the formatter can finish.
+        void discard() throws IOException {
+            try {
+                while (queue.take() != END) {
+                    // dropped
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Export was interrupted.", e);
+            }
+        }
+
+        // Writes the blocks as UTF-8 until END; returns the number of bytes.
+        long drainTo(OutputStream out) throws IOException {
+            CountingStream counted = new CountingStream(out);
+            Writer w = new OutputStreamWriter(counted, StandardCharsets.UTF_8);
+            IOException failure = null;
+            try {
+                for (CharBuffer block = queue.take(); block != END; block = queue.take()) {
+                    if (failure != null)
+                        continue;
+                    try {
+                        w.write(block.array(), 0, block.limit());
+                    } catch (IOException e) {
+                        failure = e;
                     }
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Export was interrupted.", e);
             }
+            if (failure != null)
+                throw failure;
+            w.flush();
+            return counted.count;
         }
+    }
+
+    // Collects chars into blocks and queues each full block; close queues the rest and END.
+    private static final class QueueWriter extends Writer {
+        private final BlockingQueue<CharBuffer> queue;
+        private char[] block = new char[BLOCK_CHARS];
+        private int length;
 
-        Files.write(out, lines, StandardCharsets.UTF_8);
+        QueueWriter(BlockingQueue<CharBuffer> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int count) throws IOException {
+            while (count > 0) {
+                int n = Math.min(count, block.length - length);
+                System.arraycopy(chars, offset, block, length, n);
+                length += n;
+                offset += n;
+                count -= n;
+                if (length == block.length)
+                    flush();
+            }
+        }
+
+        @Override
+        public void write(String text, int offset, int count) throws IOException {
+            while (count > 0) {
+                int n = Math.min(count, block.length - length);
+                text.getChars(offset, offset + n, block, length);
+                length += n;
+                offset += n;
+                count -= n;
+                if (length == block.length)
+                    flush();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (length == 0)
+                return;
+            put(CharBuffer.wrap(block, 0, length));
+            block = new char[BLOCK_CHARS];
+            length = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                put(END);
+            }
+        }
+
+        private void put(CharBuffer buffer) throws IOException {
+            try {
+                queue.put(buffer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Export was interrupted.", e);
+            }
+        }
+    }
+
+    private static final class CountingStream extends FilterOutputStream {
+        long count;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int offset, int length) throws IOException {
+            out.write(b, offset, length);
+            count += length;
+        }
     }
 }
@@ -1,24 +1,218 @@
 package com.example.scheduler.service;
 
+import com.example.scheduler.model.AttendanceListReader;
+import com.example.scheduler.model.Classroom;
+import com.example.scheduler.model.Course;
 import com.example.scheduler.model.DataRepository;
+import com.example.scheduler.model.Exam;
+import com.example.scheduler.model.Schedule;
+import com.example.scheduler.model.Slot;
+import com.example.scheduler.model.Student;
+import com.example.scheduler.model.StudentIndex;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
 
 public class CsvImportService {
 
+    // Files are parsed in ranges of about this size, so a large file keeps every worker busy.
+    private static final int CHUNK_BYTES = 4 << 20;
+
     private final DataRepository repository;
+    private final int parallelism;
+    private final int chunkBytes;
 
     public CsvImportService(DataRepository repository) {
+        this(repository, Runtime.getRuntime().availableProcessors(), CHUNK_BYTES);
+    }
+
+    public CsvImportService(DataRepository repository, int parallelism, int chunkBytes) {
         this.repository = repository;
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkBytes = Math.max(1, chunkBytes);
     }
 
+    // The four data files are read at the same time, each into memory and cut into line-aligned
+    // chunks that are parsed in parallel. Nothing in the repository changes until all of them are
+    // read; then one replaceData call merges the parts (see DataRepository.replaceData).
     public void importAll(Path studentsCsv,
             Path coursesCsv,
             Path classroomsCsv,
             Path registrationsCsv,
             Path slotsCsv) throws IOException {
 
-        repository.loadAll(studentsCsv, coursesCsv, classroomsCsv, registrationsCsv);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ForkJoinTask<List<Student>> students = pool.submit(() -> readLines(studentsCsv, Student::new));
+            ForkJoinTask<List<String>> courses = pool.submit(() -> readLines(coursesCsv, code -> code));
+            ForkJoinTask<List<Classroom>> classrooms = pool.submit(
+                    () -> readLines(classroomsCsv, DataRepository::parseClassroom));
+            ForkJoinTask<List<Map<String, Course>>> registrations = pool.submit(
+                    () -> readRegistrations(registrationsCsv));
+
+            repository.replaceData(await(students), await(courses), await(classrooms), await(registrations));
+        } finally {
+            pool.shutdown();
+        }
         repository.loadSlots(slotsCsv);
     }
+
+    // Same as importAll, but takes the data from the snapshot when it was made from these very files,
+    // and otherwise reads the CSVs and writes a new snapshot. Returns whether the snapshot was used.
+    public boolean importAll(Path studentsCsv,
+            Path coursesCsv,
+            Path classroomsCsv,
+            Path registrationsCsv,
+            Path slotsCsv,
+            RepositorySnapshot snapshot) throws IOException {
+
+        if (snapshot.load(repository))
+            return true;
+
+        importAll(studentsCsv, coursesCsv, classroomsCsv, registrationsCsv, slotsCsv);
+        try {
+            snapshot.write(repository, null);
+        } catch (IOException e) {
+            System.out.println("Could not write " + snapshot.getFile() + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    // One value per non-empty line after the header line, in file order; the parser may return
+    // null to skip a line.
+    private <T> List<T> readLines(Path path, Function<String, T> parser) {
+        List<ForkJoinTask<List<T>>> parts = new ArrayList<>();
+        boolean first = true;
+        for (ByteBuffer chunk : open(path).lineChunks(chunkSize())) {
+            boolean header = first;
+            first = false;
+            parts.add(ForkJoinTask.adapt(() -> {
+                List<String> lines = ChunkedCsvFile.nonEmptyLines(chunk);
+                List<T> values = new ArrayList<>(lines.size());
+                for (int i = header ? 1 : 0; i < lines.size(); i++) {
+                    T value = parser.apply(lines.get(i));
+                    if (value != null)
+                        values.add(value);
+                }
+                return values;
+            }));
+        }
+        ForkJoinTask.invokeAll(parts);
+
+        List<T> all = new ArrayList<>();
+        for (ForkJoinTask<List<T>> part : parts) {
+            all.addAll(part.join());
+        }
+        return all;
+    }
+
+    // Courses per chunk of the attendance file, in file order; each chunk has its own StudentIndex.
+    private List<Map<String, Course>> readRegistrations(Path path) {
+        List<ForkJoinTask<Map<String, Course>>> parts = new ArrayList<>();
+        for (ByteBuffer chunk : open(path).attendanceChunks(chunkSize())) {
+            parts.add(ForkJoinTask.adapt(() -> new AttendanceListReader(new StudentIndex()).read(chunk)));
+        }
+        ForkJoinTask.invokeAll(parts);
+
+        List<Map<String, Course>> all = new ArrayList<>();
+        for (ForkJoinTask<Map<String, Course>> part : parts) {
+            all.add(part.join());
+        }
+        return all;
+    }
+
+    // With one worker, cutting a file only costs the merge.
+    private int chunkSize() {
+        return parallelism == 1 ? Integer.MAX_VALUE : chunkBytes;
+    }
+
+    private static ChunkedCsvFile open(Path path) {
+        try {
+            return ChunkedCsvFile.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Waits for a file and rethrows its failure as it was thrown.
+    private static <T> T await(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import was interrupted.", e);
+        } catch (ExecutionException e) {
+            // a fork-join task may hand back a copy of the failure, or a RuntimeException
+            // wrapping a checked one, with the original as its cause
+            Throwable cause = e.getCause();
+            while (cause.getCause() != null && (cause.getCause().getClass() == cause.getClass()
+                    || cause instanceof RuntimeException && cause.getCause() instanceof IOException)) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    // Reads a schedule written by CsvExportService.exportByCourse (for example the last run, to
+    // seed a warm start). Rows naming an unknown course or classroom are skipped.
+    public Schedule importSchedule(Path byCourseCsv) throws IOException {
+        Map<Slot, Slot> slots = new HashMap<>();
+        for (Slot s : repository.getSlots()) {
+            slots.putIfAbsent(s, s);
+        }
+        Map<String, Classroom> rooms = new HashMap<>();
+        for (Classroom room : repository.getClassrooms()) {
+            rooms.put(room.getRoomId(), room);
+        }
+
+        Schedule schedule = new Schedule();
+        List<String> lines = Files.readAllLines(byCourseCsv, StandardCharsets.UTF_8);
+        for (int i = 1; i < lines.size(); i++) {
+            String[] parts = lines.get(i).trim().split(";");
+            if (parts.length < 5)
+                continue;
+
+            Course course = repository.getCourses().get(parts[0].trim());
+            if (course == null)
+                continue;
+
+            List<Classroom> assigned = new ArrayList<>();
+            for (String roomId : parts[4].split(",")) {
+                Classroom room = rooms.get(roomId.trim());
+                if (room == null) {
+                    assigned = null;
+                    break;
+                }
+                assigned.add(room);
+            }
+            if (assigned == null)
+                continue;
+
+            Slot slot;
+            try {
+                slot = new Slot(Integer.parseInt(parts[1].trim()), Integer.parseInt(parts[2].trim()), parts[3].trim());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            schedule.addExam(new Exam(course, slots.getOrDefault(slot, slot), assigned));
+        }
+        return schedule;
+    }
 }
@@ -0,0 +1,118 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.SchedulingResult;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+// DSatur graph colouring: always place next the course whose conflicting neighbours already
+// occupy the most distinct slots (its saturation), breaking ties by degree and enrollment.
+// The most constrained courses are handled while they still have options left.
+public class DSaturStrategy implements SchedulingStrategy {
+
+    private final boolean spread;
+    private final long seed;
+
+    public DSaturStrategy() {
+        this(false, 0);
+    }
+
+    // spread: use the least-penalty slot instead of the first one; a non-zero seed breaks ties randomly.
+    public DSaturStrategy(boolean spread, long seed) {
+        this.spread = spread;
+        this.seed = seed;
+    }
+
+    @Override
+    public String getName() {
+        return "DSatur";
+    }
+
+    @Override
+    public SchedulingResult schedule(PlacementEngine placement) {
+        ConflictGraph graph = placement.getConflictGraph();
+        int n = graph.size();
+        int words = (placement.slotCount() + 63) >>> 6;
+
+        // neighbourSlots[c] is the set of slots used by placed neighbours of c
+        long[][] neighbourSlots = new long[n][words];
+        int[] saturation = new int[n];
+        PriorityQueue<Entry> queue = new PriorityQueue<>();
+        int[] tieBreak = new int[n];
+        Random random = new Random(seed);
+        for (int c = 0; c < n; c++) {
+            tieBreak[c] = seed == 0 ? c : random.nextInt();
+        }
+
+        for (int c = 0; c < n; c++) {
+            if (placement.isPlaced(c))
+                continue;
+            for (int neighbour : graph.neighbours(c)) {
+                int slot = placement.slotOf(neighbour);
+                if (slot >= 0 && markSlot(neighbourSlots[c], slot))
+                    saturation[c]++;
+            }
+            queue.add(new Entry(c, saturation[c], graph, tieBreak[c]));
+        }
+
+        while (!queue.isEmpty()) {
+            Entry next = queue.poll();
+            int c = next.course;
+            if (placement.isPlaced(c) || next.saturation != saturation[c])
+                continue; // stale entry
+
+            if (placement.placeInBestSlot(c, spread) == null) {
+                throw new RuntimeException("No feasible slot found for " + graph.getCourse(c).getCourseCode());
+            }
+            int placedSlot = placement.slotOf(c);
+
+            for (int neighbour : graph.neighbours(c)) {
+                if (placement.isPlaced(neighbour))
+                    continue;
+                if (markSlot(neighbourSlots[neighbour], placedSlot)) {
+                    saturation[neighbour]++;
+                    queue.add(new Entry(neighbour, saturation[neighbour], graph, tieBreak[neighbour]));
+                }
+            }
+        }
+
+        return new SchedulingResult(placement.getSchedule());
+    }
+
+    private static boolean markSlot(long[] set, int slot) {
+        long bit = 1L << slot;
+        if ((set[slot >>> 6] & bit) != 0)
+            return false;
+        set[slot >>> 6] |= bit;
+        return true;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final int course;
+        final int saturation;
+        final int degree;
+        final int enrollment;
+        final int tieBreak;
+
+        Entry(int course, int saturation, ConflictGraph graph, int tieBreak) {
+            this.course = course;
+            this.tieBreak = tieBreak;
+            this.saturation = saturation;
+            this.degree = graph.degree(course);
+            this.enrollment = graph.getCourse(course).getStudentCount();
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            if (saturation != o.saturation)
+                return Integer.compare(o.saturation, saturation);
+            if (degree != o.degree)
+                return Integer.compare(o.degree, degree);
+            if (enrollment != o.enrollment)
+                return Integer.compare(o.enrollment, enrollment);
+            if (tieBreak != o.tieBreak)
+                return Integer.compare(tieBreak, o.tieBreak);
+            return Integer.compare(course, o.course);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.scheduler.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rows, bytes and time per file of one CsvExportService.exportAll run. Bytes are counted before
+// compression when the files go into a zip; each file's time runs from the start of the export
+// until its last byte is written.
+public class ExportReport {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<long[]> figures = new ArrayList<>(); // rows, bytes, millis
+    private long totalMillis;
+
+    void add(String name, long rows, long bytes, long millis) {
+        names.add(name);
+        figures.add(new long[] { rows, bytes, millis });
+    }
+
+    void setTotalMillis(long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public List<String> getFileNames() {
+        return new ArrayList<>(names);
+    }
+
+    public long getRows(String name) {
+        return figure(name, 0);
+    }
+
+    public long getBytes(String name) {
+        return figure(name, 1);
+    }
+
+    public long getMillis(String name) {
+        return figure(name, 2);
+    }
+
+    public long getTotalBytes() {
+        long total = 0;
+        for (long[] f : figures) {
+            total += f[1];
+        }
+        return total;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    private long figure(String name, int i) {
+        int at = names.indexOf(name);
+        return at < 0 ? 0 : figures.get(at)[i];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            long[] f = figures.get(i);
+            sb.append(String.format("%s: %d rows, %s in %d ms (%s/s)%n",
+                    names.get(i), f[0], size(f[1]), f[2], size(f[1] * 1000 / Math.max(1, f[2]))));
+        }
+        sb.append(String.format("Total: %s in %d ms", size(getTotalBytes()), totalMillis));
+        return sb.toString();
+    }
+
+    private static String size(long bytes) {
+        if (bytes < 1024)
+            return bytes + " B";
+        if (bytes < 1024 * 1024)
+            return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Quick checks, run before a solve, that prove some inputs can never be scheduled:
+// - a greedy clique of courses that pairwise share students needs more slots that are neither
+//   equal nor back-to-back than the configuration has;
+// - a student has more exams than fit into the days at two a day with none back-to-back;
+// - a course has more students than all classrooms seat together, or all exams together need
+//   more seats or room bookings than the slots offer.
+// Each failed bound names the courses, students or rooms behind it. Passing every bound does not
+// mean a schedule exists; the solver still decides that.
+public class FeasibilityAnalyzer {
+
+    private final DataRepository repo;
+
+    public FeasibilityAnalyzer(DataRepository repo) {
+        this.repo = repo;
+    }
+
+    public FeasibilityReport analyze() {
+        return analyze(repo.getSlots(), new ConflictGraph(repo.getCourses().values()));
+    }
+
+    public FeasibilityReport analyze(List<Slot> slots, ConflictGraph graph) {
+        FeasibilityReport report = new FeasibilityReport();
+        if (graph.size() == 0)
+            return report;
+        if (slots.isEmpty()) {
+            report.addProblem("No exam slots are configured.");
+            return report;
+        }
+
+        // per day, the most slots that are pairwise not back-to-back
+        Map<Integer, TreeSet<Integer>> indicesByDay = new HashMap<>();
+        for (Slot s : slots) {
+            indicesByDay.computeIfAbsent(s.getDay(), d -> new TreeSet<>()).add(s.getIndex());
+        }
+        int cliqueCapacity = 0;
+        int studentCapacity = 0;
+        for (TreeSet<Integer> indices : indicesByDay.values()) {
+            int apart = 0;
+            int last = Integer.MIN_VALUE;
+            for (int index : indices) {
+                if (last == Integer.MIN_VALUE || index > last + 1) {
+                    apart++;
+                    last = index;
+                }
+            }
+            cliqueCapacity += apart;
+            studentCapacity += Math.min(PlacementEngine.MAX_EXAMS_PER_DAY, apart);
+        }
+
+        checkClique(report, graph, cliqueCapacity);
+        checkStudents(report, graph, studentCapacity, indicesByDay.size());
+        checkSeats(report, graph, slots.size());
+        return report;
+    }
+
+    private void checkClique(FeasibilityReport report, ConflictGraph graph, int cliqueCapacity) {
+        int[] clique = graph.largestGreedyClique();
+        if (clique.length <= cliqueCapacity)
+            return;
+        List<String> codes = new ArrayList<>();
+        for (int c : clique) {
+            codes.add(graph.getCourse(c).getCourseCode());
+            report.addCourse(graph.getCourse(c).getCourseCode());
+        }
+        report.addProblem(clique.length + " courses pairwise share students (" + FeasibilityReport.names(codes)
+                + "), so they need " + clique.length + " slots with none equal or back-to-back, but the slot"
+                + " configuration only has " + cliqueCapacity + ".");
+    }
+
+    private void checkStudents(FeasibilityReport report, ConflictGraph graph, int studentCapacity, int days) {
+        int[] exams = new int[repo.getStudentIndex().size()];
+        for (int c = 0; c < graph.size(); c++) {
+            for (int student : graph.getCourse(c).getStudentOrdinals()) {
+                if (student < exams.length)
+                    exams[student]++;
+            }
+        }
+        List<String> ids = new ArrayList<>();
+        int most = 0;
+        for (int student = 0; student < exams.length; student++) {
+            if (exams[student] > studentCapacity) {
+                String id = repo.getStudentIndex().idOf(student);
+                ids.add(id);
+                report.addStudent(id);
+                most = Math.max(most, exams[student]);
+            }
+        }
+        if (ids.isEmpty())
+            return;
+        report.addProblem(ids.size() + " student(s) (" + FeasibilityReport.names(ids) + ") have up to " + most
+                + " exams, but at most " + studentCapacity + " fit into " + days + " day(s) with "
+                + PlacementEngine.MAX_EXAMS_PER_DAY + " a day and none back-to-back.");
+    }
+
+    private void checkSeats(FeasibilityReport report, ConflictGraph graph, int slotCount) {
+        List<Classroom> rooms = new ArrayList<>(repo.getClassrooms());
+        rooms.sort((a, b) -> Integer.compare(b.getCapacity(), a.getCapacity()));
+        long totalCapacity = 0;
+        for (Classroom room : rooms) {
+            totalCapacity += Math.max(room.getCapacity(), 0);
+        }
+
+        List<String> tooLarge = new ArrayList<>();
+        long seats = 0;
+        long bookings = 0;
+        for (int c = 0; c < graph.size(); c++) {
+            Course course = graph.getCourse(c);
+            int students = course.getStudentCount();
+            if (students > totalCapacity) {
+                tooLarge.add(course.getCourseCode() + " (" + students + ")");
+                report.addCourse(course.getCourseCode());
+                continue;
+            }
+            seats += students;
+            bookings += roomsNeeded(rooms, students);
+        }
+        if (!tooLarge.isEmpty()) {
+            report.addProblem(tooLarge.size() + " course(s) have more students than all " + rooms.size()
+                    + " classrooms seat together (" + totalCapacity + "): " + FeasibilityReport.names(tooLarge) + ".");
+        }
+
+        long seatSupply = totalCapacity * slotCount;
+        long bookingSupply = (long) rooms.size() * slotCount;
+        if (seats > seatSupply) {
+            report.addProblem("The exams need " + seats + " seats in total, but " + slotCount + " slots of "
+                    + totalCapacity + " seats only offer " + seatSupply + ".");
+        } else if (bookings > bookingSupply) {
+            report.addProblem("The exams need at least " + bookings + " room bookings in total (largest rooms first),"
+                    + " but " + slotCount + " slots of " + rooms.size() + " classrooms only offer " + bookingSupply + ".");
+        } else if (tooLarge.isEmpty()) {
+            return;
+        }
+        for (Classroom room : rooms) {
+            report.addRoom(room.getRoomId());
+        }
+    }
+
+    // Fewest rooms whose seats add up to the students, taking the largest rooms first; every exam
+    // books one room at least, even without students.
+    private static int roomsNeeded(List<Classroom> roomsByCapacity, int students) {
+        int needed = 0;
+        int remaining = students;
+        for (Classroom room : roomsByCapacity) {
+            if (remaining <= 0)
+                break;
+            remaining -= room.getCapacity();
+            needed++;
+        }
+        return Math.max(needed, 1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.scheduler.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Outcome of a FeasibilityAnalyzer pass: one message per bound the data breaks, and the courses,
+// students and rooms those bounds name. An empty report does not promise a schedule exists.
+public class FeasibilityReport {
+
+    private static final int NAMES_SHOWN = 10;
+
+    private final List<String> problems = new ArrayList<>();
+    private final Set<String> courses = new LinkedHashSet<>();
+    private final Set<String> students = new LinkedHashSet<>();
+    private final Set<String> rooms = new LinkedHashSet<>();
+
+    void addProblem(String message) {
+        problems.add(message);
+    }
+
+    void addCourse(String courseCode) {
+        courses.add(courseCode);
+    }
+
+    void addStudent(String studentId) {
+        students.add(studentId);
+    }
+
+    void addRoom(String roomId) {
+        rooms.add(roomId);
+    }
+
+    // False once some bound proves that no schedule exists.
+    public boolean isFeasible() {
+        return problems.isEmpty();
+    }
+
+    public List<String> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    public Set<String> getCourses() {
+        return Collections.unmodifiableSet(courses);
+    }
+
+    public Set<String> getStudents() {
+        return Collections.unmodifiableSet(students);
+    }
+
+    public Set<String> getRooms() {
+        return Collections.unmodifiableSet(rooms);
+    }
+
+    // The first few names of the list, with a count of the rest.
+    static String names(List<String> names) {
+        if (names.size() <= NAMES_SHOWN)
+            return String.join(", ", names);
+        return String.join(", ", names.subList(0, NAMES_SHOWN)) + " and " + (names.size() - NAMES_SHOWN) + " more";
+    }
+
+    @Override
+    public String toString() {
+        if (problems.isEmpty())
+            return "No bound rules out a schedule.";
+        return String.join("\n", problems);
+    }
+}
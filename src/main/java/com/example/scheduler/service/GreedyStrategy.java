@@ -0,0 +1,79 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.Course;
+import com.example.scheduler.model.SchedulingResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+// Fixed-order pass: courses are taken one by one in the chosen order, each into the first feasible
+// slot (or the least-penalty one when spreading). The default is the original largest-enrollment-first run.
+public class GreedyStrategy implements SchedulingStrategy {
+
+    public enum Order {
+        LARGEST_ENROLLMENT, MOST_CONFLICTS, RANDOM
+    }
+
+    private final Order order;
+    private final boolean spread;
+    private final long seed;
+
+    public GreedyStrategy() {
+        this(Order.LARGEST_ENROLLMENT, false, 0);
+    }
+
+    // A non-zero seed breaks ties between equal courses randomly.
+    public GreedyStrategy(Order order, boolean spread, long seed) {
+        this.order = order;
+        this.spread = spread;
+        this.seed = seed;
+    }
+
+    @Override
+    public String getName() {
+        return "Greedy";
+    }
+
+    @Override
+    public SchedulingResult schedule(PlacementEngine placement) {
+        ConflictGraph graph = placement.getConflictGraph();
+
+        List<Integer> courses = new ArrayList<>();
+        for (int c = 0; c < graph.size(); c++) {
+            if (!placement.isPlaced(c))
+                courses.add(c);
+        }
+
+        Random random = new Random(seed);
+        double[] tieBreak = new double[graph.size()];
+        if (seed != 0 || order == Order.RANDOM) {
+            for (int c = 0; c < tieBreak.length; c++) {
+                tieBreak[c] = random.nextDouble();
+            }
+        }
+
+        Comparator<Integer> comparator;
+        switch (order) {
+            case MOST_CONFLICTS:
+                comparator = Comparator.comparingInt((Integer c) -> graph.degree(c)).reversed();
+                break;
+            case RANDOM:
+                comparator = Comparator.comparingDouble((Integer c) -> tieBreak[c]);
+                break;
+            default:
+                comparator = Comparator.comparingInt((Integer c) -> graph.getCourse(c).getStudentCount()).reversed();
+        }
+        courses.sort(comparator.thenComparingDouble(c -> tieBreak[c]));
+
+        for (int c : courses) {
+            if (placement.placeInBestSlot(c, spread) == null) {
+                Course course = graph.getCourse(c);
+                throw new RuntimeException("No feasible slot found for " + course.getCourseCode());
+            }
+        }
+
+        return new SchedulingResult(placement.getSchedule());
+    }
+}
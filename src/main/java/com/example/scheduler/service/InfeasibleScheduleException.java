@@ -0,0 +1,19 @@
+package com.example.scheduler.service;
+
+// Thrown when no schedule could be built. "proven" means the search was exhaustive,
+// so no schedule exists for the current data; otherwise a search limit was hit first.
+public class InfeasibleScheduleException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean proven;
+
+    public InfeasibleScheduleException(String message, boolean proven) {
+        super(message);
+        this.proven = proven;
+    }
+
+    public boolean isProven() {
+        return proven;
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Improves a feasible schedule with a steady-state genetic algorithm on several islands, one per
+// worker thread. An individual is a complete schedule (one exam per course). A child takes whole
+// days from one parent (every exam the parent holds on those days, rooms included) and the other
+// courses from the second parent, rebuilt through the PlacementEngine: a course that no longer
+// fits where the second parent had it goes to its best feasible slot, and a child that cannot
+// place every course is dropped. A few re-inserted courses mutate it, and it replaces the worst
+// individual of the island if it is better. Fitness is the PenaltyEvaluator penalty, summed from
+// moveDelta as the child is built. Between epochs each island sends its best individual to the
+// next island in a ring, where it replaces the worst.
+public class IslandGeneticOptimizer {
+
+    private static final int POPULATION = 12;
+    private static final int EPOCHS = 8;
+    private static final int MUTATIONS = 3;
+    // share of the courses re-inserted into the mutated copies of the start schedule
+    private static final int SWEEP_DIVISOR = 4;
+
+    private final DataRepository repo;
+    private final long timeBudgetMillis;
+    private final int islands;
+    private final long seed;
+
+    private final AtomicLong childrenBuilt = new AtomicLong();
+    private final AtomicLong childrenKept = new AtomicLong();
+
+    public IslandGeneticOptimizer(DataRepository repo, SchedulingOptions options) {
+        this(repo, options.getGeneticMillis(), options.getParallelism(), options.getSeed());
+    }
+
+    public IslandGeneticOptimizer(DataRepository repo, long timeBudgetMillis, int islands, long seed) {
+        this.repo = repo;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.islands = Math.max(1, islands);
+        this.seed = seed;
+    }
+
+    public long getChildrenBuilt() {
+        return childrenBuilt.get();
+    }
+
+    // Children that made it into a population.
+    public long getChildrenKept() {
+        return childrenKept.get();
+    }
+
+    // Returns the best schedule found within the time budget; the start result is left untouched.
+    public SchedulingResult optimize(SchedulingResult start, List<Slot> slots, ConflictGraph graph,
+            SolverMonitor monitor) {
+        childrenBuilt.set(0);
+        childrenKept.set(0);
+        if (timeBudgetMillis <= 0 || graph.size() == 0 || slots.size() < 2)
+            return start;
+
+        long deadline = System.currentTimeMillis() + timeBudgetMillis;
+        List<Island> all = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(islands);
+        try {
+            List<ForkJoinTask<Island>> created = new ArrayList<>();
+            for (int i = 0; i < islands; i++) {
+                long islandSeed = seed + i * 7919L;
+                created.add(pool.submit(() -> new Island(start, slots, graph, monitor, islandSeed)));
+            }
+            for (ForkJoinTask<Island> task : created) {
+                all.add(task.join());
+            }
+
+            for (int epoch = 0; epoch < EPOCHS && !monitor.isStopped(); epoch++) {
+                long epochEnd = epoch == EPOCHS - 1 ? deadline
+                        : System.currentTimeMillis() + (deadline - System.currentTimeMillis()) / (EPOCHS - epoch);
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (Island island : all) {
+                    tasks.add(pool.submit(() -> island.evolve(epochEnd)));
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+                // ring migration of the best individuals
+                if (all.size() > 1) {
+                    List<Individual> emigrants = new ArrayList<>();
+                    for (Island island : all) {
+                        emigrants.add(island.best());
+                    }
+                    for (int i = 0; i < all.size(); i++) {
+                        all.get((i + 1) % all.size()).immigrate(emigrants.get(i));
+                    }
+                }
+            }
+
+            Individual best = null;
+            for (Island island : all) {
+                if (best == null || island.best().penalty < best.penalty)
+                    best = island.best();
+            }
+            int startPenalty = all.get(0).startPenalty;
+            if (best.penalty >= startPenalty)
+                return start;
+
+            Schedule schedule = new Schedule();
+            for (Exam exam : best.exams) {
+                if (exam != null)
+                    schedule.addExam(exam);
+            }
+            SchedulingResult result = new SchedulingResult(schedule);
+            result.getRelaxations().addAll(start.getRelaxations());
+            result.setLowerBound(start.getLowerBound());
+            result.setPenaltyScore(start.getPenaltyScore() - startPenalty + best.penalty);
+            return result;
+        } finally {
+            for (Island island : all) {
+                island.placement.detach();
+            }
+            pool.shutdown();
+        }
+    }
+
+    private static final class Individual {
+        // exam and slot ordinal of each course, null and -1 for courses the start did not place
+        final Exam[] exams;
+        final int[] slots;
+        final int penalty;
+
+        Individual(Exam[] exams, int[] slots, int penalty) {
+            this.exams = exams;
+            this.slots = slots;
+            this.penalty = penalty;
+        }
+    }
+
+    private final class Island {
+        private final ConflictGraph graph;
+        private final List<Slot> slots;
+        private final SolverMonitor monitor;
+        private final Random random;
+        private final Schedule schedule = new Schedule();
+        private final PlacementEngine placement;
+        private final StudentLoadTracker loads;
+        private final List<Individual> population = new ArrayList<>();
+        private final int penaltyOffset;
+        private final int maxDay;
+        final int startPenalty;
+
+        // courses the start schedule placed; only these are part of an individual
+        private final int[] courses;
+        private final boolean[] fromFirst;
+
+        Island(SchedulingResult start, List<Slot> slots, ConflictGraph graph, SolverMonitor monitor, long seed) {
+            this.graph = graph;
+            this.slots = slots;
+            this.monitor = monitor;
+            this.random = new Random(seed);
+            this.placement = new PlacementEngine(repo, slots, graph, schedule);
+            this.loads = placement.getLoadTracker();
+            this.fromFirst = new boolean[graph.size()];
+            int days = 0;
+            for (Slot s : slots) {
+                days = Math.max(days, s.getDay());
+            }
+            this.maxDay = days;
+
+            Exam[] startExams = new Exam[graph.size()];
+            List<Integer> placed = new ArrayList<>();
+            for (Exam exam : start.getSchedule().getAllExams()) {
+                int c = graph.indexOf(exam.getCourse());
+                if (c >= 0 && startExams[c] == null) {
+                    startExams[c] = exam;
+                    placed.add(c);
+                }
+            }
+            this.courses = new int[placed.size()];
+            for (int i = 0; i < courses.length; i++) {
+                courses[i] = placed.get(i);
+            }
+
+            // the start schedule (feasible, so it always builds), then by turns schedules of the
+            // portfolio variants for diversity and mutated copies of the start
+            Individual first = build(startExams, null, 0);
+            this.startPenalty = first.penalty;
+            this.penaltyOffset = start.getPenaltyScore() - startPenalty;
+            population.add(first);
+            for (int i = 1; i < POPULATION && !monitor.isStopped(); i++) {
+                Individual individual = i % 2 == 1 ? constructed(PortfolioSolver.variant(i, seed + i)) : null;
+                if (individual == null)
+                    individual = build(startExams, null, sweepSize());
+                if (individual != null)
+                    population.add(individual);
+            }
+        }
+
+        void evolve(long deadline) {
+            long children = 0;
+            long kept = 0;
+            while (System.currentTimeMillis() < deadline && !monitor.isStopped()) {
+                Individual a = tournament();
+                Individual b = tournament();
+                Individual child = build(a.exams, b.exams, 1 + random.nextInt(MUTATIONS));
+                children++;
+                monitor.nodesExplored(1);
+                if (child == null)
+                    continue;
+                int worst = worstIndex();
+                if (child.penalty < population.get(worst).penalty && !contains(child)) {
+                    int bestPenalty = best().penalty;
+                    population.set(worst, child);
+                    kept++;
+                    if (child.penalty < bestPenalty)
+                        monitor.penaltyFound(penaltyOffset + child.penalty);
+                }
+            }
+            childrenBuilt.addAndGet(children);
+            childrenKept.addAndGet(kept);
+        }
+
+        Individual best() {
+            Individual best = population.get(0);
+            for (Individual individual : population) {
+                if (individual.penalty < best.penalty)
+                    best = individual;
+            }
+            return best;
+        }
+
+        void immigrate(Individual individual) {
+            if (contains(individual))
+                return;
+            int worst = worstIndex();
+            if (individual.penalty < population.get(worst).penalty)
+                population.set(worst, individual);
+        }
+
+        private int worstIndex() {
+            int worst = 0;
+            for (int i = 1; i < population.size(); i++) {
+                if (population.get(i).penalty > population.get(worst).penalty)
+                    worst = i;
+            }
+            return worst;
+        }
+
+        private boolean contains(Individual individual) {
+            for (Individual other : population) {
+                if (other.penalty == individual.penalty && Arrays.equals(other.slots, individual.slots))
+                    return true;
+            }
+            return false;
+        }
+
+        private Individual tournament() {
+            Individual a = population.get(random.nextInt(population.size()));
+            Individual b = population.get(random.nextInt(population.size()));
+            return a.penalty <= b.penalty ? a : b;
+        }
+
+        // A new individual on the island's schedule: with second null a copy of first, otherwise
+        // the days picked at random from first and everything else from second, then mutated by
+        // re-inserting that many courses. Null if some course could not be placed.
+        private Individual build(Exam[] first, Exam[] second, int mutations) {
+            for (Exam exam : new ArrayList<>(schedule.getAllExams())) {
+                schedule.removeExam(exam);
+            }
+            int penalty = 0;
+
+            if (second == null) {
+                Arrays.fill(fromFirst, true);
+            } else {
+                boolean[] dayFromFirst = new boolean[maxDay + 1];
+                for (int d = 1; d < dayFromFirst.length; d++) {
+                    dayFromFirst[d] = random.nextBoolean();
+                }
+                for (int c : courses) {
+                    fromFirst[c] = dayFromFirst[first[c].getSlot().getDay()];
+                }
+            }
+
+            // the day blocks of the first parent go in as they are, so they always fit together;
+            // each exam's penalty is measured as the change of taking it out again
+            for (int c : courses) {
+                if (!fromFirst[c])
+                    continue;
+                Exam exam = placement.keep(first[c]);
+                if (exam == null)
+                    return null;
+                penalty -= PenaltyEvaluator.moveDelta(loads, exam.getCourse(), exam.getSlot().getDay(), 0);
+            }
+            for (int c : courses) {
+                if (fromFirst[c])
+                    continue;
+                Exam exam = placement.keep(second[c]);
+                if (exam == null)
+                    exam = placement.tryPlace(c, placement.slotOrdinal(second[c].getSlot()));
+                if (exam == null)
+                    exam = placement.placeInBestSlot(c, true);
+                if (exam == null)
+                    return null;
+                penalty -= PenaltyEvaluator.moveDelta(loads, exam.getCourse(), exam.getSlot().getDay(), 0);
+            }
+
+            penalty += mutate(mutations);
+
+            Exam[] exams = new Exam[graph.size()];
+            int[] slotOf = new int[graph.size()];
+            Arrays.fill(slotOf, -1);
+            for (int c : courses) {
+                exams[c] = placement.getExam(c);
+                slotOf[c] = placement.slotOf(c);
+            }
+            return new Individual(exams, slotOf, penalty);
+        }
+
+        // An individual from a fresh run of the strategy, or null if it gets stuck.
+        private Individual constructed(SchedulingStrategy strategy) {
+            try {
+                SchedulingResult result = SchedulingEngine.runAttempt(repo, slots, graph, strategy,
+                        new SolverMonitor(monitor));
+                Exam[] exams = new Exam[graph.size()];
+                for (Exam exam : result.getSchedule().getAllExams()) {
+                    int c = graph.indexOf(exam.getCourse());
+                    if (c >= 0)
+                        exams[c] = exam;
+                }
+                for (int c : courses) {
+                    if (exams[c] == null)
+                        return null;
+                }
+                return build(exams, null, 0);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        // The sweep: a copy of the start schedule with only a few courses moved would be nearly the
+        // same individual, so the copies that seed the population re-insert a quarter of them.
+        private int sweepSize() {
+            return Math.max(1 + random.nextInt(MUTATIONS), courses.length / SWEEP_DIVISOR);
+        }
+
+        // Takes count random courses out and puts each into a feasible slot: mostly the one that
+        // adds the least penalty, sometimes a random one to keep the population diverse. Returns
+        // the penalty change.
+        private int mutate(int count) {
+            int delta = 0;
+            for (int i = 0; i < count; i++) {
+                int c = courses[random.nextInt(courses.length)];
+                Exam old = placement.getExam(c);
+                if (old == null)
+                    continue;
+                Course course = graph.getCourse(c);
+                int removed = PenaltyEvaluator.moveDelta(loads, course, old.getSlot().getDay(), 0);
+                schedule.removeExam(old);
+                Exam exam = random.nextInt(4) == 0 ? placement.tryPlace(c, random.nextInt(slots.size()))
+                        : placement.placeInBestSlot(c, true);
+                if (exam == null) {
+                    schedule.addExam(old);
+                    continue;
+                }
+                delta += removed - PenaltyEvaluator.moveDelta(loads, course, exam.getSlot().getDay(), 0);
+            }
+            return delta;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Improves a feasible schedule by ruin and recreate. Each step takes a group of related exams out
+// (courses linked by shared students, the exams of one day, or the exams held in one room) and puts
+// them back one by one, in a randomised order, each into the feasible slot that adds the least
+// penalty. The step is kept if the penalty does not go up, otherwise undone. Unlike the single
+// moves of LocalSearchOptimizer, a step can rearrange a whole tightly connected cluster at once.
+// Workers run in parallel on their own copies of the schedule; after each round all of them
+// continue from the best copy.
+public class LargeNeighbourhoodSearch {
+
+    private static final int ROUNDS = 4;
+    private static final int MIN_RUIN = 3;
+    private static final int MAX_RUIN = 12;
+
+    private final DataRepository repo;
+    private final long timeBudgetMillis;
+    private final int workers;
+    private final long seed;
+
+    private final AtomicLong stepsTried = new AtomicLong();
+    private final AtomicLong stepsAccepted = new AtomicLong();
+
+    public LargeNeighbourhoodSearch(DataRepository repo, SchedulingOptions options) {
+        this(repo, options.getLargeNeighbourhoodMillis(), options.getParallelism(), options.getSeed());
+    }
+
+    public LargeNeighbourhoodSearch(DataRepository repo, long timeBudgetMillis, int workers, long seed) {
+        this.repo = repo;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.workers = Math.max(1, workers);
+        this.seed = seed;
+    }
+
+    public long getStepsTried() {
+        return stepsTried.get();
+    }
+
+    public long getStepsAccepted() {
+        return stepsAccepted.get();
+    }
+
+    // Returns the best schedule found within the time budget; the start result is left untouched.
+    public SchedulingResult optimize(SchedulingResult start, List<Slot> slots, ConflictGraph graph,
+            SolverMonitor monitor) {
+        stepsTried.set(0);
+        stepsAccepted.set(0);
+        if (timeBudgetMillis <= 0 || graph.size() == 0 || slots.size() < 2)
+            return start;
+
+        long deadline = System.currentTimeMillis() + timeBudgetMillis;
+        SchedulingResult best = start;
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            for (int round = 0; round < ROUNDS && !monitor.isStopped(); round++) {
+                long roundEnd = round == ROUNDS - 1 ? deadline
+                        : System.currentTimeMillis() + (deadline - System.currentTimeMillis()) / (ROUNDS - round);
+                List<ForkJoinTask<SchedulingResult>> tasks = new ArrayList<>();
+                for (int w = 0; w < workers; w++) {
+                    SchedulingResult from = best;
+                    long workerSeed = seed + round * 7919L + w;
+                    tasks.add(pool.submit(() -> new Worker(from, slots, graph, monitor, workerSeed).run(roundEnd)));
+                }
+                for (ForkJoinTask<SchedulingResult> task : tasks) {
+                    SchedulingResult result = task.join();
+                    if (result.getPenaltyScore() < best.getPenaltyScore())
+                        best = result;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return best;
+    }
+
+    private final class Worker {
+        private final SchedulingResult start;
+        private final SolverMonitor monitor;
+        private final ConflictGraph graph;
+        private final List<Slot> slots;
+        private final Random random;
+        private final Schedule schedule = new Schedule();
+        private final PlacementEngine placement;
+        private final StudentLoadTracker loads;
+
+        // The step under evaluation
+        private final boolean[] ruined;
+        private final List<Integer> ruin = new ArrayList<>();
+        private final List<Exam> removed = new ArrayList<>();
+        private final List<Exam> inserted = new ArrayList<>();
+
+        Worker(SchedulingResult start, List<Slot> slots, ConflictGraph graph, SolverMonitor monitor, long seed) {
+            this.start = start;
+            this.slots = slots;
+            this.graph = graph;
+            this.monitor = monitor;
+            this.random = new Random(seed);
+            for (Exam exam : start.getSchedule().getAllExams()) {
+                schedule.addExam(new Exam(exam.getCourse(), exam.getSlot(), exam.getAssignedRooms()));
+            }
+            this.placement = new PlacementEngine(repo, slots, graph, schedule);
+            this.loads = placement.getLoadTracker();
+            this.ruined = new boolean[graph.size()];
+        }
+
+        SchedulingResult run(long deadline) {
+            try {
+                int startPenalty = PenaltyEvaluator.evaluate(loads);
+                int offset = start.getPenaltyScore() - startPenalty;
+                int current = startPenalty;
+                int maxRuin = Math.max(MIN_RUIN, Math.min(MAX_RUIN, placement.placedCount() / 4));
+                long steps = 0;
+                long accepted = 0;
+
+                while (current > 0) {
+                    if ((steps & 15) == 0) {
+                        if (System.currentTimeMillis() >= deadline || monitor.isStopped())
+                            break;
+                        if (steps > 0)
+                            monitor.nodesExplored(16);
+                    }
+                    steps++;
+
+                    int size = MIN_RUIN + random.nextInt(maxRuin - MIN_RUIN + 1);
+                    if (!selectRuin(size))
+                        continue;
+                    Integer delta = ruinAndRecreate();
+                    if (delta == null)
+                        continue;
+                    if (delta <= 0) {
+                        accepted++;
+                        if (delta < 0) {
+                            current += delta;
+                            monitor.penaltyFound(offset + current);
+                        }
+                    } else {
+                        undo();
+                    }
+                }
+
+                stepsTried.addAndGet(steps);
+                stepsAccepted.addAndGet(accepted);
+                Schedule copy = new Schedule();
+                for (Exam exam : schedule.getAllExams()) {
+                    copy.addExam(exam);
+                }
+                SchedulingResult result = new SchedulingResult(copy);
+                result.getRelaxations().addAll(start.getRelaxations());
+                result.setLowerBound(start.getLowerBound());
+                result.setPenaltyScore(offset + current);
+                return result;
+            } finally {
+                placement.detach();
+            }
+        }
+
+        // Picks the courses to take out: related by students, sharing a day, or sharing a room.
+        private boolean selectRuin(int size) {
+            ruin.clear();
+            int kind = random.nextInt(100);
+            if (kind < 50)
+                selectByStudents(size);
+            else if (kind < 80)
+                selectByDay(size);
+            else
+                selectByRoom(size);
+            return !ruin.isEmpty();
+        }
+
+        // Grows from a random course, adding neighbours of the group that share many students.
+        private void selectByStudents(int size) {
+            int seedCourse = randomPlacedCourse();
+            if (seedCourse < 0)
+                return;
+            add(seedCourse);
+            int misses = 0;
+            while (ruin.size() < size && misses < size) {
+                int from = ruin.get(random.nextInt(ruin.size()));
+                int[] neighbours = graph.neighbours(from);
+                int[] weights = graph.weights(from);
+                int pick = -1;
+                int pickWeight = -1;
+                // best of a few random neighbours, so heavy edges are favoured but not always chosen
+                for (int t = 0; t < 3 && neighbours.length > 0; t++) {
+                    int i = random.nextInt(neighbours.length);
+                    if (!ruined[neighbours[i]] && placement.isPlaced(neighbours[i]) && weights[i] > pickWeight) {
+                        pick = neighbours[i];
+                        pickWeight = weights[i];
+                    }
+                }
+                if (pick < 0)
+                    misses++;
+                else
+                    add(pick);
+            }
+        }
+
+        private void selectByDay(int size) {
+            int day = slots.get(random.nextInt(slots.size())).getDay();
+            List<Integer> onDay = new ArrayList<>();
+            for (int c = 0; c < graph.size(); c++) {
+                int s = placement.slotOf(c);
+                if (s >= 0 && slots.get(s).getDay() == day)
+                    onDay.add(c);
+            }
+            pickRandomly(onDay, size);
+        }
+
+        private void selectByRoom(int size) {
+            int seedCourse = randomPlacedCourse();
+            if (seedCourse < 0)
+                return;
+            List<Classroom> seedRooms = placement.getExam(seedCourse).getAssignedRooms();
+            String roomId = seedRooms.get(random.nextInt(seedRooms.size())).getRoomId();
+            List<Integer> inRoom = new ArrayList<>();
+            for (int c = 0; c < graph.size(); c++) {
+                Exam exam = placement.getExam(c);
+                if (exam == null)
+                    continue;
+                for (Classroom room : exam.getAssignedRooms()) {
+                    if (room.getRoomId().equals(roomId)) {
+                        inRoom.add(c);
+                        break;
+                    }
+                }
+            }
+            pickRandomly(inRoom, size);
+        }
+
+        private void pickRandomly(List<Integer> candidates, int size) {
+            for (int i = 0; i < candidates.size() && ruin.size() < size; i++) {
+                int j = i + random.nextInt(candidates.size() - i);
+                int c = candidates.get(j);
+                candidates.set(j, candidates.get(i));
+                add(c);
+            }
+        }
+
+        private int randomPlacedCourse() {
+            for (int t = 0; t < 8; t++) {
+                int c = random.nextInt(graph.size());
+                if (placement.isPlaced(c))
+                    return c;
+            }
+            return -1;
+        }
+
+        private void add(int c) {
+            ruined[c] = true;
+            ruin.add(c);
+        }
+
+        // Takes the group out and puts it back; returns the penalty change, or null (with the
+        // group restored) if some course found no slot.
+        private Integer ruinAndRecreate() {
+            removed.clear();
+            inserted.clear();
+            int delta = 0;
+            for (int c : ruin) {
+                Exam exam = placement.getExam(c);
+                delta += PenaltyEvaluator.moveDelta(loads, exam.getCourse(), exam.getSlot().getDay(), 0);
+                schedule.removeExam(exam);
+                removed.add(exam);
+                ruined[c] = false;
+            }
+
+            // most conflicts first with random noise, or plain random order
+            List<Integer> order = new ArrayList<>(ruin);
+            if (random.nextBoolean()) {
+                Map<Integer, Double> key = new HashMap<>();
+                for (int c : order) {
+                    key.put(c, graph.degree(c) * (0.5 + random.nextDouble()));
+                }
+                order.sort((a, b) -> Double.compare(key.get(b), key.get(a)));
+            } else {
+                for (int i = order.size() - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int t = order.get(i);
+                    order.set(i, order.get(j));
+                    order.set(j, t);
+                }
+            }
+
+            for (int c : order) {
+                Integer added = insert(c);
+                if (added == null) {
+                    undo();
+                    return null;
+                }
+                delta += added;
+            }
+            return delta;
+        }
+
+        // Into the feasible slot that adds the least penalty; slots are scanned from a random
+        // offset so ties go to a random slot. Returns the penalty added, or null.
+        private Integer insert(int c) {
+            Course course = graph.getCourse(c);
+            int slotCount = slots.size();
+            int offset = random.nextInt(slotCount);
+            int bestSlot = -1;
+            int bestDelta = Integer.MAX_VALUE;
+            Map<Integer, Integer> deltaByDay = new HashMap<>();
+            for (int i = 0; i < slotCount; i++) {
+                int slot = (offset + i) % slotCount;
+                if (!placement.isStudentFeasible(c, slot))
+                    continue;
+                int day = slots.get(slot).getDay();
+                int delta = deltaByDay.computeIfAbsent(day, d -> PenaltyEvaluator.moveDelta(loads, course, 0, d));
+                if (delta >= bestDelta || placement.roomsFor(c, slot) == null)
+                    continue;
+                bestSlot = slot;
+                bestDelta = delta;
+            }
+            if (bestSlot < 0)
+                return null;
+            Exam exam = placement.tryPlace(c, bestSlot);
+            if (exam == null)
+                return null;
+            inserted.add(exam);
+            return bestDelta;
+        }
+
+        private void undo() {
+            for (Exam exam : inserted) {
+                schedule.removeExam(exam);
+            }
+            for (Exam exam : removed) {
+                schedule.addExam(exam);
+            }
+            for (int c : ruin) {
+                ruined[c] = false;
+            }
+            inserted.clear();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Improves a feasible schedule by simulated annealing. Each step tries a single exam move, a swap
+// of two exams or a Kempe-chain interchange between two slots; every move goes through the
+// PlacementEngine, so the hard constraints keep holding, and its penalty change comes from
+// PenaltyEvaluator.moveDelta, which only looks at the students of the moved courses.
+// Recently moved courses stay tabu for a few steps unless moving them beats the best schedule.
+public class LocalSearchOptimizer {
+
+    private static final int TABU_TENURE = 7;
+    private static final int MAX_CHAIN_LENGTH = 24;
+    private static final double START_TEMPERATURE = 4.0;
+    private static final double END_TEMPERATURE = 0.05;
+
+    private final DataRepository repo;
+    private final long timeBudgetMillis;
+    private final long seed;
+
+    private long movesTried;
+    private long movesAccepted;
+
+    // Courses whose exams must stay where they are
+    private Set<String> fixedCourses = Collections.emptySet();
+
+    public LocalSearchOptimizer(DataRepository repo, SchedulingOptions options) {
+        this(repo, options.getLocalSearchMillis(), options.getSeed());
+    }
+
+    public LocalSearchOptimizer(DataRepository repo, long timeBudgetMillis, long seed) {
+        this.repo = repo;
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.seed = seed;
+    }
+
+    public SchedulingResult optimize(SchedulingResult start) {
+        return optimize(start, repo.getSlots(), new ConflictGraph(repo.getCourses().values()));
+    }
+
+    // Returns the best schedule found within the time budget; the start result is left untouched.
+    public SchedulingResult optimize(SchedulingResult start, List<Slot> slots, ConflictGraph graph) {
+        return optimize(start, slots, graph, new SolverMonitor());
+    }
+
+    // Also stops early when the monitor is stopped, and reports every new best penalty to it.
+    public SchedulingResult optimize(SchedulingResult start, List<Slot> slots, ConflictGraph graph,
+            SolverMonitor monitor) {
+        Schedule working = new Schedule();
+        for (Exam exam : start.getSchedule().getAllExams()) {
+            working.addExam(new Exam(exam.getCourse(), exam.getSlot(), exam.getAssignedRooms()));
+        }
+
+        PlacementEngine placement = new PlacementEngine(repo, slots, graph, working);
+        try {
+            Run run = new Run(placement, monitor);
+            int startPenalty = PenaltyEvaluator.evaluate(placement.getLoadTracker());
+            run.penaltyOffset = start.getPenaltyScore() - startPenalty;
+            int bestPenalty = run.search(startPenalty);
+
+            SchedulingResult result = new SchedulingResult(run.bestSchedule());
+            result.getRelaxations().addAll(start.getRelaxations());
+            result.setLowerBound(start.getLowerBound());
+            result.setPenaltyScore(start.getPenaltyScore() - startPenalty + bestPenalty);
+            return result;
+        } finally {
+            placement.detach();
+        }
+    }
+
+    // The exams of these courses are never moved (used to keep a warm start's seed stable).
+    public void setFixedCourses(Set<String> fixedCourses) {
+        this.fixedCourses = fixedCourses;
+    }
+
+    public long getMovesTried() {
+        return movesTried;
+    }
+
+    public long getMovesAccepted() {
+        return movesAccepted;
+    }
+
+    private final class Run {
+        private final PlacementEngine placement;
+        private final SolverMonitor monitor;
+        private final ConflictGraph graph;
+        private final StudentLoadTracker loads;
+        private final Schedule schedule;
+        private final Random random = new Random(seed);
+        private final int courseCount;
+        private final int slotCount;
+
+        // Courses that can move (placed, part of the graph and not fixed)
+        private final int[] movable;
+        private final boolean[] fixed;
+        private final long[] tabuUntil;
+
+        // The move under evaluation: moveCourses[i] goes to moveTargets[i]
+        private int[] moveCourses = new int[MAX_CHAIN_LENGTH * 2];
+        private int[] moveTargets = new int[MAX_CHAIN_LENGTH * 2];
+        private Exam[] oldExams = new Exam[MAX_CHAIN_LENGTH * 2];
+        private Exam[] newExams = new Exam[MAX_CHAIN_LENGTH * 2];
+        private int moveSize;
+        private int placedSoFar;
+
+        private final Exam[] best;
+
+        // Kempe chain search
+        private final boolean[] inChain;
+        private final int[] chainQueue;
+
+        // Turns the soft penalty into the penalty of the whole result, for progress reports
+        private int penaltyOffset;
+
+        Run(PlacementEngine placement, SolverMonitor monitor) {
+            this.placement = placement;
+            this.monitor = monitor;
+            this.graph = placement.getConflictGraph();
+            this.loads = placement.getLoadTracker();
+            this.schedule = placement.getSchedule();
+            this.courseCount = graph.size();
+            this.slotCount = placement.slotCount();
+
+            this.fixed = new boolean[courseCount];
+            List<Integer> placed = new ArrayList<>();
+            for (int c = 0; c < courseCount; c++) {
+                fixed[c] = fixedCourses.contains(graph.getCourse(c).getCourseCode());
+                if (placement.isPlaced(c) && !fixed[c])
+                    placed.add(c);
+            }
+            this.movable = new int[placed.size()];
+            for (int i = 0; i < movable.length; i++) {
+                movable[i] = placed.get(i);
+            }
+            this.tabuUntil = new long[courseCount];
+            this.best = new Exam[courseCount];
+            this.inChain = new boolean[courseCount];
+            this.chainQueue = new int[courseCount];
+        }
+
+        int search(int startPenalty) {
+            int current = startPenalty;
+            int bestPenalty = startPenalty;
+            for (int c = 0; c < courseCount; c++) {
+                best[c] = placement.getExam(c); // fixed exams never change after this
+            }
+            if (movable.length == 0 || slotCount < 2 || timeBudgetMillis <= 0)
+                return bestPenalty;
+
+            long startTime = System.currentTimeMillis();
+            long deadline = startTime + timeBudgetMillis;
+            double temperature = START_TEMPERATURE;
+            long step = 0;
+
+            while (bestPenalty > 0) {
+                if ((step & 255) == 0) {
+                    long now = System.currentTimeMillis();
+                    if (now >= deadline || monitor.isStopped())
+                        break;
+                    if (step > 0)
+                        monitor.nodesExplored(256);
+                    double progress = (double) (now - startTime) / timeBudgetMillis;
+                    temperature = START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, progress);
+                }
+                step++;
+
+                if (!proposeMove())
+                    continue;
+                movesTried++;
+
+                Integer delta = applyMove();
+                if (delta == null)
+                    continue;
+
+                boolean aspiration = current + delta < bestPenalty;
+                if (!aspiration && isTabu(step)) {
+                    undoMove();
+                    continue;
+                }
+                if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                    movesAccepted++;
+                    current += delta;
+                    for (int i = 0; i < moveSize; i++) {
+                        tabuUntil[moveCourses[i]] = step + TABU_TENURE;
+                    }
+                    if (current < bestPenalty) {
+                        bestPenalty = current;
+                        saveBest();
+                        monitor.penaltyFound(penaltyOffset + bestPenalty);
+                    }
+                } else {
+                    undoMove();
+                }
+            }
+            return bestPenalty;
+        }
+
+        Schedule bestSchedule() {
+            Schedule result = new Schedule();
+            for (Exam exam : best) {
+                if (exam != null)
+                    result.addExam(exam);
+            }
+            return result;
+        }
+
+        private void saveBest() {
+            for (int c : movable) {
+                best[c] = placement.getExam(c);
+            }
+        }
+
+        private boolean isTabu(long step) {
+            for (int i = 0; i < moveSize; i++) {
+                if (tabuUntil[moveCourses[i]] > step)
+                    return true;
+            }
+            return false;
+        }
+
+        // Picks a single move, a swap or a Kempe chain; false if the pick makes no move.
+        private boolean proposeMove() {
+            int c = movable[random.nextInt(movable.length)];
+            int from = placement.slotOf(c);
+            int kind = random.nextInt(100);
+
+            if (kind < 60) {
+                int to = random.nextInt(slotCount - 1);
+                if (to >= from)
+                    to++;
+                moveSize = 1;
+                moveCourses[0] = c;
+                moveTargets[0] = to;
+                return true;
+            }
+
+            if (kind < 85) {
+                int other = movable[random.nextInt(movable.length)];
+                int otherSlot = placement.slotOf(other);
+                if (otherSlot == from)
+                    return false;
+                moveSize = 2;
+                moveCourses[0] = c;
+                moveTargets[0] = otherSlot;
+                moveCourses[1] = other;
+                moveTargets[1] = from;
+                return true;
+            }
+
+            int to = random.nextInt(slotCount - 1);
+            if (to >= from)
+                to++;
+            return buildKempeChain(c, from, to);
+        }
+
+        // The conflict-connected group of courses in the two slots that contains c; swapping the
+        // whole group keeps every shared student out of a common slot.
+        private boolean buildKempeChain(int c, int slotA, int slotB) {
+            int head = 0;
+            int tail = 0;
+            chainQueue[tail++] = c;
+            inChain[c] = true;
+            boolean tooLong = false;
+
+            while (head < tail) {
+                int u = chainQueue[head++];
+                for (int v : graph.neighbours(u)) {
+                    int vSlot = placement.slotOf(v);
+                    if (inChain[v] || (vSlot != slotA && vSlot != slotB))
+                        continue;
+                    if (tail == MAX_CHAIN_LENGTH || fixed[v]) {
+                        tooLong = true;
+                        break;
+                    }
+                    inChain[v] = true;
+                    chainQueue[tail++] = v;
+                }
+                if (tooLong)
+                    break;
+            }
+
+            for (int i = 0; i < tail; i++) {
+                inChain[chainQueue[i]] = false;
+            }
+            if (tooLong)
+                return false;
+
+            moveSize = tail;
+            for (int i = 0; i < tail; i++) {
+                int u = chainQueue[i];
+                moveCourses[i] = u;
+                moveTargets[i] = placement.slotOf(u) == slotA ? slotB : slotA;
+            }
+            return true;
+        }
+
+        // Takes the moved courses out, then places each one in its target slot. Returns the
+        // penalty change, or null (with everything restored) if a hard constraint fails.
+        private Integer applyMove() {
+            int delta = 0;
+            for (int i = 0; i < moveSize; i++) {
+                int c = moveCourses[i];
+                oldExams[i] = placement.getExam(c);
+                delta += PenaltyEvaluator.moveDelta(loads, graph.getCourse(c), oldExams[i].getSlot().getDay(), 0);
+                schedule.removeExam(oldExams[i]);
+            }
+
+            for (placedSoFar = 0; placedSoFar < moveSize; placedSoFar++) {
+                int c = moveCourses[placedSoFar];
+                int target = moveTargets[placedSoFar];
+                if (!placement.isStudentFeasible(c, target)) {
+                    undoMove();
+                    return null;
+                }
+                int day = placement.getSlots().get(target).getDay();
+                int added = PenaltyEvaluator.moveDelta(loads, graph.getCourse(c), 0, day);
+                Exam exam = placement.tryPlace(c, target);
+                if (exam == null) {
+                    undoMove();
+                    return null;
+                }
+                newExams[placedSoFar] = exam;
+                delta += added;
+            }
+            return delta;
+        }
+
+        private void undoMove() {
+            for (int i = 0; i < placedSoFar; i++) {
+                schedule.removeExam(newExams[i]);
+            }
+            for (int i = 0; i < moveSize; i++) {
+                schedule.addExam(oldExams[i]);
+            }
+            placedSoFar = 0;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.scheduler.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lower bounds that hold for every schedule of a conflict graph, used to prune and to tell how
+// far a schedule can be from the optimum. A student can have at most
+// min(MAX_EXAMS_PER_DAY, ceil(slotsPerDay / 2)) exams a day, since no two may be consecutive;
+// the same limit holds for the courses of a clique, which pairwise share a student.
+public final class LowerBounds {
+
+    private LowerBounds() {
+    }
+
+    public static int maxExamsPerDay(int slotsPerDay) {
+        return Math.min(PlacementEngine.MAX_EXAMS_PER_DAY, (slotsPerDay + 1) / 2);
+    }
+
+    // Fewest exam days any schedule needs: from the largest greedy clique and the busiest student.
+    public static int minimumDays(ConflictGraph graph, int slotsPerDay) {
+        if (slotsPerDay <= 0)
+            return 0;
+        int cliquePerDay = (slotsPerDay + 1) / 2;
+        int days = ceilDiv(graph.largestGreedyClique().length, cliquePerDay);
+        int perDay = maxExamsPerDay(slotsPerDay);
+        for (int exams : examsPerStudent(graph)) {
+            days = Math.max(days, ceilDiv(exams, perDay));
+        }
+        return days;
+    }
+
+    // Least penalty any schedule over the days can have. Two bounds on the same-day cost, of which
+    // the larger is taken: the courses of each clique spread as evenly as possible over the days
+    // (each pair on one day shares a student, so costs SAME_DAY_WEIGHT at least), and every
+    // student's exams laid out over the days at the least possible cost of their own.
+    public static int minimumPenalty(ConflictGraph graph, int days, int slotsPerDay) {
+        if (days <= 0)
+            return 0;
+        int cliqueBound = 0;
+        int cliquePerDay = (slotsPerDay + 1) / 2;
+        for (int[] clique : graph.disjointGreedyCliques()) {
+            int k = clique.length;
+            if (k > days * cliquePerDay)
+                continue; // infeasible anyway, leave it to the feasibility checks
+            int base = k / days;
+            int larger = k % days;
+            cliqueBound += PenaltyEvaluator.SAME_DAY_WEIGHT
+                    * (larger * pairs(base + 1) + (days - larger) * pairs(base));
+        }
+
+        int perDay = maxExamsPerDay(slotsPerDay);
+        Map<Integer, Integer> costByExams = new HashMap<>();
+        int studentBound = 0;
+        for (int exams : examsPerStudent(graph)) {
+            if (exams > 1)
+                studentBound += costByExams.computeIfAbsent(exams, n -> studentMinimum(n, days, perDay));
+        }
+        return Math.max(cliqueBound, studentBound);
+    }
+
+    // Least same-day cost that open more courses of a clique add when the clique's exams so far are
+    // spread as in load (exams per day, indexed 1..days), at most perDay a day. An exam on a day that
+    // already has n of them pairs with all n, so the cheapest way is to always take the emptiest day.
+    // If the courses do not fit, the cost of those that do is returned (the feasibility checks catch it).
+    static int cliqueIncrease(int[] load, int days, int open, int perDay) {
+        int pairs = 0;
+        for (int level = 0; level < perDay && open > 0; level++) {
+            int room = 0;
+            for (int day = 1; day <= days; day++) {
+                if (load[day] <= level)
+                    room++;
+            }
+            int taken = Math.min(open, room);
+            pairs += taken * level;
+            open -= taken;
+        }
+        return PenaltyEvaluator.SAME_DAY_WEIGHT * pairs;
+    }
+
+    // Least penalty of one student with the given number of exams.
+    static int studentMinimum(int exams, int days, int perDay) {
+        return studentIncrease(new int[days + 1], days, exams, perDay);
+    }
+
+    // Least penalty that open more exams add for a student who already has load[day] exams on each
+    // day (indexed 1..days), at most perDay a day: a DP over the days that tracks the exams laid out
+    // so far and whether the previous day had any. 0 if the exams do not fit.
+    static int studentIncrease(int[] load, int days, int open, int perDay) {
+        // nothing, if the exams fit on empty days with no exams next to them or to each other
+        int free = 0;
+        int last = -1;
+        for (int day = 1; day <= days && free < open; day++) {
+            if (load[day] == 0 && load[day - 1] == 0 && (day == days || load[day + 1] == 0) && last != day - 1) {
+                free++;
+                last = day;
+            }
+        }
+        if (free >= open)
+            return 0;
+
+        final int INF = Integer.MAX_VALUE / 2;
+        int[] cost = new int[2 * (open + 1)]; // cost[2 * used + (previous day has exams ? 1 : 0)]
+        int[] next = new int[cost.length];
+        Arrays.fill(cost, INF);
+        cost[0] = 0;
+        int before = 0;
+        for (int day = 1; day <= days; day++) {
+            int have = load[day];
+            before += PenaltyEvaluator.SAME_DAY_WEIGHT * pairs(have);
+            if (day > 1 && have > 0 && load[day - 1] > 0)
+                before += PenaltyEvaluator.BACK_TO_BACK_WEIGHT;
+
+            Arrays.fill(next, INF);
+            int most = Math.max(0, perDay - have);
+            for (int used = 0; used <= open; used++) {
+                for (int prev = 0; prev < 2; prev++) {
+                    if (cost[2 * used + prev] >= INF)
+                        continue;
+                    for (int today = 0; today <= most && used + today <= open; today++) {
+                        int count = have + today;
+                        int c = cost[2 * used + prev] + PenaltyEvaluator.SAME_DAY_WEIGHT * pairs(count);
+                        if (prev == 1 && count > 0)
+                            c += PenaltyEvaluator.BACK_TO_BACK_WEIGHT;
+                        int state = 2 * (used + today) + (count > 0 ? 1 : 0);
+                        next[state] = Math.min(next[state], c);
+                    }
+                }
+            }
+            int[] swap = cost;
+            cost = next;
+            next = swap;
+        }
+        int best = Math.min(cost[2 * open], cost[2 * open + 1]);
+        return best >= INF ? 0 : best - before;
+    }
+
+    private static List<Integer> examsPerStudent(ConflictGraph graph) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int c = 0; c < graph.size(); c++) {
+            for (int student : graph.getCourse(c).getStudentOrdinals()) {
+                counts.merge(student, 1, Integer::sum);
+            }
+        }
+        return new ArrayList<>(counts.values());
+    }
+
+    private static int pairs(int n) {
+        return n * (n - 1) / 2;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.DataRepository;
+import com.example.scheduler.model.SchedulingResult;
+import com.example.scheduler.model.Slot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Finds the fewest exam days for which the time ranges of a day give a schedule. Day counts
+// start at LowerBounds.minimumDays and are raced in windows of parallelism size, each on its own
+// SlotGenerator grid and child monitor. A day count that schedules cancels every larger one still
+// running; one that FeasibilityAnalyzer proves infeasible cancels every smaller one, since fewer
+// days cannot do better. A proof from the complete search is reported as the outcome but does not
+// cancel anything; only the analyzer's bounds are trusted for that. A window only starts when the
+// one before it found nothing.
+public class MinimumDaysSearch {
+
+    private static final int ATTEMPTS_PER_DAY_COUNT = 3;
+
+    private final DataRepository repo;
+    private final List<String> timeRanges;
+    private final SchedulingOptions options;
+
+    private final Map<Integer, String> outcomes = new ConcurrentHashMap<>();
+    private int days = -1;
+    private int lowerBound;
+    private boolean provenMinimal;
+    private boolean stopped;
+    private List<Slot> slots = Collections.emptyList();
+
+    public MinimumDaysSearch(DataRepository repo, List<String> timeRanges, SchedulingOptions options) {
+        this.repo = repo;
+        this.timeRanges = new ArrayList<>(timeRanges);
+        this.options = options;
+    }
+
+    // Fewest days of the last search, -1 if it found no schedule.
+    public int getDays() {
+        return days;
+    }
+
+    // Slots of the grid the last search settled on.
+    public List<Slot> getSlots() {
+        return slots;
+    }
+
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    // Every smaller day count was shown to have no schedule.
+    public boolean isProvenMinimal() {
+        return provenMinimal;
+    }
+
+    // The last search was stopped (cancelled or out of time) before any day count scheduled, so
+    // its null result says nothing about the slots.
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    // What happened to each day count that was looked at, by day count.
+    public Map<Integer, String> getOutcomes() {
+        return new TreeMap<>(outcomes);
+    }
+
+    // Up to one day per course, which always does unless the rooms are too small.
+    public SchedulingResult search(SolverMonitor monitor) {
+        return search(Math.max(1, repo.getCourses().size()), monitor);
+    }
+
+    // The schedule on the smallest grid up to maxDays that could be scheduled, or null (see isStopped).
+    public SchedulingResult search(int maxDays, SolverMonitor monitor) {
+        outcomes.clear();
+        days = -1;
+        provenMinimal = false;
+        stopped = false;
+        slots = Collections.emptyList();
+        if (timeRanges.isEmpty())
+            throw new IllegalArgumentException("At least one slot must be defined.");
+
+        ConflictGraph graph = new ConflictGraph(repo.getCourses().values());
+        lowerBound = Math.max(1, LowerBounds.minimumDays(graph, timeRanges.size()));
+
+        AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicInteger floor = new AtomicInteger(lowerBound - 1); // every day count up to it is infeasible
+        Map<Integer, SolverMonitor> running = new ConcurrentHashMap<>();
+        Map<Integer, SchedulingResult> found = new ConcurrentHashMap<>();
+
+        int parallelism = Math.max(1, options.getParallelism());
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int lo = lowerBound; lo <= maxDays && best.get() == Integer.MAX_VALUE && !monitor.isStopped(); lo += parallelism) {
+                int hi = Math.min(maxDays, lo + parallelism - 1);
+                monitor.setPhase(lo == hi ? "Trying " + lo + " days" : "Trying " + lo + "-" + hi + " days");
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (int d = lo; d <= hi; d++) {
+                    int dayCount = d;
+                    tasks.add(pool.submit(() -> tryDays(dayCount, graph, monitor, best, floor, running, found)));
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if (best.get() == Integer.MAX_VALUE) {
+            stopped = monitor.isStopped();
+            monitor.setPhase(stopped ? "Stopped" : "Done");
+            return null;
+        }
+        days = best.get();
+        provenMinimal = floor.get() >= days - 1;
+        slots = SlotGenerator.generateSlots(days, timeRanges);
+        SchedulingResult result = found.get(days);
+
+        if (options.getLocalSearchMillis() > 0 && !monitor.isStopped()) {
+            monitor.setPhase("Optimizing");
+            result = new LocalSearchOptimizer(repo, options).optimize(result, slots, graph, monitor);
+        }
+        monitor.offer(result);
+        monitor.setPhase(monitor.isStopped() ? "Stopped" : "Done");
+        return result;
+    }
+
+    private void tryDays(int dayCount, ConflictGraph graph, SolverMonitor parent, AtomicInteger best,
+            AtomicInteger floor, Map<Integer, SolverMonitor> running, Map<Integer, SchedulingResult> found) {
+        if (dayCount >= best.get() || dayCount <= floor.get()) {
+            outcomes.put(dayCount, "cancelled");
+            return;
+        }
+        List<Slot> grid = SlotGenerator.generateSlots(dayCount, timeRanges);
+        FeasibilityReport precheck = new FeasibilityAnalyzer(repo).analyze(grid, graph);
+        if (!precheck.isFeasible()) {
+            infeasible(dayCount, "infeasible (bounds)", floor, running);
+            return;
+        }
+
+        SolverMonitor monitor = new SolverMonitor(parent);
+        running.put(dayCount, monitor);
+        // a smaller day count may have succeeded between the first check and the put
+        if (dayCount >= best.get() || dayCount <= floor.get())
+            monitor.cancel();
+        try {
+            SchedulingResult result = solve(grid, graph, monitor);
+            if (result == null) {
+                outcomes.put(dayCount, "no schedule found");
+                return;
+            }
+            found.put(dayCount, result);
+            outcomes.put(dayCount, "scheduled");
+            best.accumulateAndGet(dayCount, Math::min);
+            running.forEach((d, m) -> {
+                if (d > dayCount)
+                    m.cancel();
+            });
+        } catch (SolverStoppedException e) {
+            outcomes.put(dayCount, parent.isStopped() ? "stopped" : "cancelled");
+        } catch (InfeasibleScheduleException e) {
+            outcomes.put(dayCount, e.isProven() ? "infeasible (search)" : "no schedule found");
+        } catch (RuntimeException e) {
+            outcomes.put(dayCount, "no schedule found");
+        } finally {
+            running.remove(dayCount);
+        }
+    }
+
+    private void infeasible(int dayCount, String outcome, AtomicInteger floor, Map<Integer, SolverMonitor> running) {
+        outcomes.put(dayCount, outcome);
+        floor.accumulateAndGet(dayCount, Math::max);
+        running.forEach((d, m) -> {
+            if (d < dayCount)
+                m.cancel();
+        });
+    }
+
+    // A few portfolio variants one after the other, stopping at the first schedule, then the
+    // complete search if enabled. Only whether the grid can be scheduled matters here.
+    private SchedulingResult solve(List<Slot> grid, ConflictGraph graph, SolverMonitor monitor) {
+        int attempts = Math.max(1, Math.min(ATTEMPTS_PER_DAY_COUNT, options.getPortfolioSize()));
+        for (int i = 0; i < attempts; i++) {
+            try {
+                return SchedulingEngine.runAttempt(repo, grid, graph,
+                        PortfolioSolver.variant(i, options.getSeed() + i), monitor);
+            } catch (SolverStoppedException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // next variant
+            }
+        }
+        if (!options.isBacktrackingFallback())
+            return null;
+        return SchedulingEngine.runAttempt(repo, grid, graph, new BacktrackingStrategy(options), monitor);
+    }
+}
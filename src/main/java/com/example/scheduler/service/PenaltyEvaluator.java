@@ -0,0 +1,113 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.Course;
+import com.example.scheduler.model.StudentLoadTracker;
+import com.example.scheduler.model.StudentOccupancy;
+
+// Soft-constraint score of a schedule, lower is better. It only depends on how many exams
+// each student has per day, so it is computed from a StudentLoadTracker:
+// - every pair of exams a student has on the same day costs SAME_DAY_WEIGHT
+// - every two consecutive days on which a student has exams cost BACK_TO_BACK_WEIGHT
+public final class PenaltyEvaluator {
+
+    public static final int SAME_DAY_WEIGHT = 3;
+    public static final int BACK_TO_BACK_WEIGHT = 1;
+
+    private PenaltyEvaluator() {
+    }
+
+    public static int evaluate(StudentLoadTracker loads) {
+        int total = 0;
+        for (int student = 0; student < loads.getStudentCapacity(); student++) {
+            total += studentPenalty(loads, student);
+        }
+        return total;
+    }
+
+    // Same score from per-student slot bitmasks (day counts by popcount).
+    public static int evaluate(StudentOccupancy occupancy) {
+        int total = 0;
+        for (int student = 0; student < occupancy.getStudentCapacity(); student++) {
+            int previous = 0;
+            for (int day = 1; day <= occupancy.getDays(); day++) {
+                int count = occupancy.dayCount(student, day);
+                total += sameDay(count);
+                if (previous > 0 && count > 0)
+                    total += BACK_TO_BACK_WEIGHT;
+                previous = count;
+            }
+        }
+        return total;
+    }
+
+    public static int studentPenalty(StudentLoadTracker loads, int student) {
+        int penalty = 0;
+        int previous = 0;
+        for (int day = 1; day <= loads.getDays(); day++) {
+            int count = loads.getCount(student, day);
+            penalty += sameDay(count);
+            if (previous > 0 && count > 0)
+                penalty += BACK_TO_BACK_WEIGHT;
+            previous = count;
+        }
+        return penalty;
+    }
+
+    // Change of the penalty when the exam of the course moves from one day to another.
+    // Use day 0 for "not in the schedule" on either side. Costs O(enrollment).
+    public static int moveDelta(StudentLoadTracker loads, Course course, int fromDay, int toDay) {
+        if (fromDay == toDay)
+            return 0;
+        int delta = 0;
+        for (int student : course.getStudentOrdinals()) {
+            delta += studentMoveDelta(loads, student, fromDay, toDay);
+        }
+        return delta;
+    }
+
+    public static int studentMoveDelta(StudentLoadTracker loads, int student, int fromDay, int toDay) {
+        int delta = 0;
+        if (fromDay > 0) {
+            int c = loads.getCount(student, fromDay);
+            delta += sameDay(c - 1) - sameDay(c);
+        }
+        if (toDay > 0) {
+            int c = loads.getCount(student, toDay);
+            delta += sameDay(c + 1) - sameDay(c);
+        }
+
+        // back-to-back pairs (d, d + 1) touching one of the two days, each counted once
+        int[] firstDays = { fromDay - 1, fromDay, toDay - 1, toDay };
+        for (int i = 0; i < firstDays.length; i++) {
+            int d = firstDays[i];
+            if (d < 1 || d >= loads.getDays() || (i < 2 ? fromDay : toDay) == 0)
+                continue;
+            boolean seen = false;
+            for (int j = 0; j < i; j++) {
+                if (firstDays[j] == d && (j < 2 ? fromDay : toDay) != 0)
+                    seen = true;
+            }
+            if (seen)
+                continue;
+
+            int before = loads.getCount(student, d);
+            int beforeNext = loads.getCount(student, d + 1);
+            int after = before + shift(d, fromDay, toDay);
+            int afterNext = beforeNext + shift(d + 1, fromDay, toDay);
+            delta += backToBack(after, afterNext) - backToBack(before, beforeNext);
+        }
+        return delta;
+    }
+
+    private static int shift(int day, int fromDay, int toDay) {
+        return (day == toDay ? 1 : 0) - (day == fromDay ? 1 : 0);
+    }
+
+    private static int sameDay(int count) {
+        return count < 2 ? 0 : SAME_DAY_WEIGHT * count * (count - 1) / 2;
+    }
+
+    private static int backToBack(int count, int nextCount) {
+        return count > 0 && nextCount > 0 ? BACK_TO_BACK_WEIGHT : 0;
+    }
+}
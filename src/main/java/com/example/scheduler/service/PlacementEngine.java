@@ -0,0 +1,349 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One schedule under construction plus the indexes needed to place exams into it quickly:
+// the course conflict graph, a bitset of the courses sitting in each slot, per-student day loads
+// and room occupancy. Strategies only talk to this class, so every one of them checks the
+// hard constraints the same way.
+public class PlacementEngine implements ScheduleListener {
+
+    public static final int MAX_EXAMS_PER_DAY = 2;
+
+    private final DataRepository repo;
+    private final List<Slot> slots;
+    private final ConflictGraph graph;
+    private final Schedule schedule;
+    private final StudentLoadTracker loadTracker;
+    private final OccupancyGrid occupancy;
+
+    // coursesInSlot[slot] is a bitset over course indices of the graph
+    private final long[][] coursesInSlot;
+    // same-day neighbour slot ordinals, -1 when there is none
+    private final int[] previousSlot;
+    private final int[] nextSlot;
+    private final int[] slotOfCourse;
+    private int placedCount;
+
+    // seats of the graph's exams in each slot, and of all rooms together
+    private final int[] seatsInSlot;
+    private final int totalCapacity;
+    // tryPlace calls that failed for lack of free rooms where other rooms for the exams already in
+    // the slot might have left enough (see getRoomRefusals)
+    private long roomRefusals;
+
+    // Progress reporting and cancellation, optional
+    private SolverMonitor monitor;
+    private long pendingNodes;
+
+    public PlacementEngine(DataRepository repo, List<Slot> slots, ConflictGraph graph) {
+        this(repo, slots, graph, new Schedule());
+    }
+
+    public PlacementEngine(DataRepository repo, List<Slot> slots, ConflictGraph graph, Schedule schedule) {
+        this.repo = repo;
+        this.slots = slots;
+        this.graph = graph;
+        this.schedule = schedule;
+
+        int maxDay = 0;
+        for (Slot s : slots) {
+            maxDay = Math.max(maxDay, s.getDay());
+        }
+        this.loadTracker = StudentLoadTracker.attach(schedule, repo.getStudentIndex().size(), maxDay);
+        this.occupancy = OccupancyGrid.attach(schedule, slots, repo.getClassrooms());
+
+        int n = graph.size();
+        this.coursesInSlot = new long[slots.size()][(n + 63) >>> 6];
+        this.slotOfCourse = new int[n];
+        Arrays.fill(slotOfCourse, -1);
+        this.seatsInSlot = new int[slots.size()];
+        int capacity = 0;
+        for (Classroom room : repo.getClassrooms()) {
+            capacity += room.getCapacity();
+        }
+        this.totalCapacity = capacity;
+
+        this.previousSlot = new int[slots.size()];
+        this.nextSlot = new int[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            Slot s = slots.get(i);
+            previousSlot[i] = occupancy.slotOrdinal(new Slot(s.getDay(), s.getIndex() - 1, ""));
+            nextSlot[i] = occupancy.slotOrdinal(new Slot(s.getDay(), s.getIndex() + 1, ""));
+        }
+
+        for (Exam exam : schedule.getAllExams()) {
+            examAdded(exam);
+        }
+        schedule.addListener(this);
+    }
+
+    public Schedule getSchedule() {
+        return schedule;
+    }
+
+    public ConflictGraph getConflictGraph() {
+        return graph;
+    }
+
+    public List<Slot> getSlots() {
+        return slots;
+    }
+
+    public int slotCount() {
+        return slots.size();
+    }
+
+    public int slotOrdinal(Slot slot) {
+        return occupancy.slotOrdinal(slot);
+    }
+
+    public StudentLoadTracker getLoadTracker() {
+        return loadTracker;
+    }
+
+    public OccupancyGrid getOccupancy() {
+        return occupancy;
+    }
+
+    // Every placement attempt is reported to the monitor, which stops the run by throwing
+    // SolverStoppedException out of tryPlace / placeInBestSlot.
+    public void setMonitor(SolverMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    public SolverMonitor getMonitor() {
+        return monitor;
+    }
+
+    // A fresh engine over the same slots and rooms for another set of courses, sharing the monitor.
+    public PlacementEngine createFor(ConflictGraph otherGraph) {
+        PlacementEngine engine = new PlacementEngine(repo, slots, otherGraph);
+        engine.setMonitor(monitor);
+        return engine;
+    }
+
+    public boolean isPlaced(int course) {
+        return slotOfCourse[course] >= 0;
+    }
+
+    // Slot ordinal of a placed course, -1 if it is not placed.
+    public int slotOf(int course) {
+        return slotOfCourse[course];
+    }
+
+    // The exam of a placed course, or null.
+    public Exam getExam(int course) {
+        if (!isPlaced(course))
+            return null;
+        return schedule.getExamByCourse(graph.getCourse(course).getCourseCode());
+    }
+
+    public int placedCount() {
+        return placedCount;
+    }
+
+    public boolean isComplete() {
+        return placedCount == graph.size();
+    }
+
+    public int previousSlot(int slot) {
+        return previousSlot[slot];
+    }
+
+    public int nextSlot(int slot) {
+        return nextSlot[slot];
+    }
+
+    // Student rules only: no shared student in the same slot, no consecutive slots on one day,
+    // at most two exams per day.
+    public boolean isStudentFeasible(int course, int slot) {
+        long[] adjacency = graph.adjacencyRow(course);
+        if (intersects(adjacency, coursesInSlot[slot]))
+            return false;
+        if (previousSlot[slot] >= 0 && intersects(adjacency, coursesInSlot[previousSlot[slot]]))
+            return false;
+        if (nextSlot[slot] >= 0 && intersects(adjacency, coursesInSlot[nextSlot[slot]]))
+            return false;
+        return !loadTracker.wouldExceed(graph.getCourse(course), slots.get(slot).getDay(), MAX_EXAMS_PER_DAY);
+    }
+
+    // True if some course conflicting with the given one sits in the slot.
+    public boolean hasConflictInSlot(int course, int slot) {
+        return intersects(graph.adjacencyRow(course), coursesInSlot[slot]);
+    }
+
+    // Free rooms of the slot that can seat the course, or null.
+    public List<Classroom> roomsFor(int course, int slot) {
+        return occupancy.assignFreeRooms(slots.get(slot), graph.getCourse(course).getStudentCount());
+    }
+
+    public boolean canPlace(int course, int slot) {
+        return !isPlaced(course) && isStudentFeasible(course, slot) && roomsFor(course, slot) != null;
+    }
+
+    // Places the course if every hard constraint holds; returns the new exam or null.
+    public Exam tryPlace(int course, int slot) {
+        countNode();
+        if (isPlaced(course) || !isStudentFeasible(course, slot))
+            return null;
+        List<Classroom> rooms = roomsFor(course, slot);
+        if (rooms == null) {
+            // not counted when the slot's exams and this one have more students than all rooms seat
+            if (totalCapacity - seatsInSlot[slot] >= graph.getCourse(course).getStudentCount())
+                roomRefusals++;
+            return null;
+        }
+
+        Exam exam = new Exam(graph.getCourse(course), slots.get(slot), rooms);
+        schedule.addExam(exam);
+        return exam;
+    }
+
+    // Rooms are handed out greedily and never searched over, so a search that saw a refusal for
+    // rooms may have missed a schedule that seats the exams of that slot differently. Refusals
+    // that no choice of rooms could avoid are left out.
+    public long getRoomRefusals() {
+        return roomRefusals;
+    }
+
+    // Puts an exam of an earlier schedule back in its slot and rooms if every hard constraint
+    // still holds, rebinding it to the current course, slot and classroom objects. Returns the
+    // new exam, or null if the course, slot or a room is gone or a rule fails.
+    public Exam keep(Exam earlier) {
+        int course = graph.indexOf(earlier.getCourse().getCourseCode());
+        int slot = occupancy.slotOrdinal(earlier.getSlot());
+        if (course < 0 || slot < 0 || isPlaced(course) || earlier.getAssignedRooms() == null
+                || earlier.getAssignedRooms().isEmpty() || !isStudentFeasible(course, slot))
+            return null;
+
+        List<Classroom> rooms = new ArrayList<>();
+        int seats = 0;
+        for (Classroom old : earlier.getAssignedRooms()) {
+            Classroom room = occupancy.findRoom(old.getRoomId());
+            if (room == null)
+                return null;
+            rooms.add(room);
+            seats += room.getCapacity();
+        }
+        Course c = graph.getCourse(course);
+        if (seats < c.getStudentCount() || occupancy.anyOccupied(slots.get(slot), rooms))
+            return null;
+
+        Exam exam = new Exam(c, slots.get(slot), rooms);
+        schedule.addExam(exam);
+        return exam;
+    }
+
+    // Places the course into the first feasible slot or, with spread set, into the feasible slot
+    // that adds the least soft-constraint penalty. Returns the new exam, or null if no slot fits.
+    public Exam placeInBestSlot(int course, boolean spread) {
+        if (!spread) {
+            for (int slot = 0; slot < slots.size(); slot++) {
+                Exam exam = tryPlace(course, slot);
+                if (exam != null)
+                    return exam;
+            }
+            return null;
+        }
+
+        if (isPlaced(course))
+            return null;
+        Course c = graph.getCourse(course);
+        int bestSlot = -1;
+        int bestDelta = Integer.MAX_VALUE;
+        List<Classroom> bestRooms = null;
+        Map<Integer, Integer> deltaByDay = new HashMap<>();
+        for (int slot = 0; slot < slots.size(); slot++) {
+            countNode();
+            if (!isStudentFeasible(course, slot))
+                continue;
+            int day = slots.get(slot).getDay();
+            Integer delta = deltaByDay.get(day);
+            if (delta == null) {
+                delta = PenaltyEvaluator.moveDelta(loadTracker, c, 0, day);
+                deltaByDay.put(day, delta);
+            }
+            if (delta >= bestDelta)
+                continue;
+            List<Classroom> rooms = roomsFor(course, slot);
+            if (rooms == null)
+                continue;
+            bestSlot = slot;
+            bestDelta = delta;
+            bestRooms = rooms;
+        }
+        if (bestSlot < 0)
+            return null;
+
+        Exam exam = new Exam(c, slots.get(bestSlot), bestRooms);
+        schedule.addExam(exam);
+        return exam;
+    }
+
+    public void remove(int course) {
+        if (!isPlaced(course))
+            return;
+        Exam exam = schedule.getExamByCourse(graph.getCourse(course).getCourseCode());
+        if (exam != null)
+            schedule.removeExam(exam);
+    }
+
+    // Unregisters every index from the schedule once the run is over.
+    public void detach() {
+        schedule.removeListener(this);
+        schedule.removeListener(loadTracker);
+        schedule.removeListener(occupancy);
+    }
+
+    @Override
+    public void examAdded(Exam exam) {
+        int c = graph.indexOf(exam.getCourse());
+        int s = occupancy.slotOrdinal(exam.getSlot());
+        if (c < 0 || s < 0)
+            return;
+        coursesInSlot[s][c >>> 6] |= 1L << c;
+        slotOfCourse[c] = s;
+        seatsInSlot[s] += graph.getCourse(c).getStudentCount();
+        placedCount++;
+    }
+
+    @Override
+    public void examRemoved(Exam exam) {
+        int c = graph.indexOf(exam.getCourse());
+        if (c < 0 || slotOfCourse[c] < 0)
+            return;
+        int s = slotOfCourse[c];
+        coursesInSlot[s][c >>> 6] &= ~(1L << c);
+        slotOfCourse[c] = -1;
+        seatsInSlot[s] -= graph.getCourse(c).getStudentCount();
+        placedCount--;
+    }
+
+    @Override
+    public void examMoved(Exam exam, Slot oldSlot) {
+        examRemoved(exam);
+        examAdded(exam);
+    }
+
+    private void countNode() {
+        if (monitor != null && ++pendingNodes == 64) {
+            pendingNodes = 0;
+            monitor.nodesExplored(64, placedCount, graph.size());
+        }
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & b[i]) != 0)
+                return true;
+        }
+        return false;
+    }
+}
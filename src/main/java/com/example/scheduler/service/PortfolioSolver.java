@@ -0,0 +1,114 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.DataRepository;
+import com.example.scheduler.model.Exam;
+import com.example.scheduler.model.SchedulingResult;
+import com.example.scheduler.model.Slot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Runs several diversified scheduling attempts at the same time (different strategy, course order
+// and seed) and ranks the feasible schedules by soft-constraint penalty. The attempts share the
+// read-only conflict graph; each one builds its own schedule.
+public class PortfolioSolver {
+
+    private final DataRepository repo;
+    private final SchedulingOptions options;
+    private volatile RuntimeException lastFailure;
+
+    public PortfolioSolver(DataRepository repo, SchedulingOptions options) {
+        this.repo = repo;
+        this.options = options;
+    }
+
+    // The first attempt uses the given strategy, the others cycle through the built-in variants.
+    public List<SchedulingResult> solve(List<Slot> slots, ConflictGraph graph, SchedulingStrategy first) {
+        return solve(slots, graph, first, new SolverMonitor());
+    }
+
+    public List<SchedulingResult> solve(List<Slot> slots, ConflictGraph graph, SchedulingStrategy first,
+            SolverMonitor monitor) {
+        int attempts = Math.max(1, options.getPortfolioSize());
+        List<SchedulingStrategy> strategies = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            strategies.add(i == 0 && first != null ? first : variant(i, options.getSeed() + i));
+        }
+
+        List<SchedulingResult> feasible = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(options.getParallelism(), attempts)));
+        try {
+            List<ForkJoinTask<SchedulingResult>> tasks = new ArrayList<>();
+            for (SchedulingStrategy strategy : strategies) {
+                tasks.add(pool.submit(() -> attempt(slots, graph, strategy, monitor)));
+            }
+            for (ForkJoinTask<SchedulingResult> task : tasks) {
+                SchedulingResult result = task.join();
+                if (result != null)
+                    feasible.add(result);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return rank(feasible, options.getTopK());
+    }
+
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    private SchedulingResult attempt(List<Slot> slots, ConflictGraph graph, SchedulingStrategy strategy,
+            SolverMonitor monitor) {
+        try {
+            return SchedulingEngine.runAttempt(repo, slots, graph, strategy, monitor);
+        } catch (RuntimeException e) {
+            lastFailure = e;
+            return null;
+        }
+    }
+
+    static SchedulingStrategy variant(int attempt, long seed) {
+        switch (attempt % 6) {
+            case 0:
+                return new DSaturStrategy(true, seed);
+            case 1:
+                return new GreedyStrategy(GreedyStrategy.Order.LARGEST_ENROLLMENT, true, seed);
+            case 2:
+                return new GreedyStrategy(GreedyStrategy.Order.MOST_CONFLICTS, true, seed);
+            case 3:
+                return new DSaturStrategy(false, seed);
+            case 4:
+                return new GreedyStrategy(GreedyStrategy.Order.RANDOM, true, seed);
+            default:
+                return new GreedyStrategy(GreedyStrategy.Order.RANDOM, false, seed);
+        }
+    }
+
+    // Lowest penalty first (stable, so earlier attempts win ties), identical schedules only once.
+    static List<SchedulingResult> rank(List<SchedulingResult> results, int topK) {
+        List<SchedulingResult> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingInt(SchedulingResult::getPenaltyScore));
+
+        List<SchedulingResult> ranked = new ArrayList<>();
+        List<Map<String, Slot>> seen = new ArrayList<>();
+        for (SchedulingResult r : sorted) {
+            if (ranked.size() >= Math.max(1, topK))
+                break;
+            Map<String, Slot> assignment = new HashMap<>();
+            for (Exam e : r.getSchedule().getAllExams()) {
+                assignment.put(e.getCourse().getCourseCode(), e.getSlot());
+            }
+            if (seen.contains(assignment))
+                continue;
+            seen.add(assignment);
+            ranked.add(r);
+        }
+        return ranked;
+    }
+}
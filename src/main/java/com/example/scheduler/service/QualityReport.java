@@ -0,0 +1,72 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.DataRepository;
+import com.example.scheduler.model.Schedule;
+import com.example.scheduler.model.StudentOccupancy;
+
+// How a schedule treats the students, counted from per-student slot bitmasks:
+// clashes, back-to-back exams on one day, days over the two-exam limit and the penalty score.
+public class QualityReport {
+
+    private int studentsWithExams;
+    private int clashes;
+    private int consecutivePairs;
+    private int studentsOverDayLimit;
+    private int penalty;
+
+    public static QualityReport of(Schedule schedule, DataRepository repo) {
+        StudentOccupancy occupancy = StudentOccupancy.attach(schedule, repo.getStudentIndex().size(), repo.getSlots());
+        schedule.removeListener(occupancy);
+        return of(occupancy);
+    }
+
+    public static QualityReport of(StudentOccupancy occupancy) {
+        QualityReport report = new QualityReport();
+        for (int student = 0; student < occupancy.getStudentCapacity(); student++) {
+            boolean hasExams = false;
+            boolean overLimit = false;
+            for (int day = 1; day <= occupancy.getDays(); day++) {
+                int count = occupancy.dayCount(student, day);
+                hasExams |= count > 0;
+                overLimit |= count > PlacementEngine.MAX_EXAMS_PER_DAY;
+            }
+            if (hasExams)
+                report.studentsWithExams++;
+            if (overLimit)
+                report.studentsOverDayLimit++;
+            report.clashes += occupancy.clashCount(student);
+            report.consecutivePairs += occupancy.consecutivePairs(student);
+        }
+        report.penalty = PenaltyEvaluator.evaluate(occupancy);
+        return report;
+    }
+
+    public int getStudentsWithExams() {
+        return studentsWithExams;
+    }
+
+    public int getClashes() {
+        return clashes;
+    }
+
+    public int getConsecutivePairs() {
+        return consecutivePairs;
+    }
+
+    public int getStudentsOverDayLimit() {
+        return studentsOverDayLimit;
+    }
+
+    public int getPenalty() {
+        return penalty;
+    }
+
+    @Override
+    public String toString() {
+        return "Students with exams: " + studentsWithExams
+                + ", clashes: " + clashes
+                + ", consecutive exams: " + consecutivePairs
+                + ", students over " + PlacementEngine.MAX_EXAMS_PER_DAY + " exams/day: " + studentsOverDayLimit
+                + ", penalty: " + penalty;
+    }
+}
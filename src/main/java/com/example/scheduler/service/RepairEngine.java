@@ -0,0 +1,194 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Brings an existing schedule in line with changed data while moving as few exams as possible.
+// Every exam is checked again and kept where it is if it still fits; exams touched by the change
+// set are checked last, so when an old and a changed exam collide it is the changed one that
+// yields. Exams that no longer fit keep their slot with new rooms if they can, otherwise they
+// go to the nearest slot that works, pushing out at most MAX_EJECTIONS other exams that are
+// then moved to their own nearest free slot.
+public class RepairEngine {
+
+    private static final int MAX_EJECTIONS = 2;
+
+    private final DataRepository repo;
+    private final List<String> movedCourses = new ArrayList<>();
+    private final List<String> reroomedCourses = new ArrayList<>();
+
+    public RepairEngine(DataRepository repo) {
+        this.repo = repo;
+    }
+
+    // Courses whose exam is in a different slot than before (or was not scheduled before).
+    public List<String> getMovedCourses() {
+        return movedCourses;
+    }
+
+    // Courses that kept their slot but got other rooms.
+    public List<String> getReroomedCourses() {
+        return reroomedCourses;
+    }
+
+    // The repaired schedule as a new result (the previous schedule is not changed), or null if
+    // some exam could not be placed without a bigger reshuffle.
+    public SchedulingResult repair(Schedule previous, ChangeSet changes) {
+        movedCourses.clear();
+        reroomedCourses.clear();
+
+        List<Slot> slots = repo.getSlots();
+        ConflictGraph graph = new ConflictGraph(repo.getCourses().values());
+        PlacementEngine placement = new PlacementEngine(repo, slots, graph);
+        try {
+            // untouched exams first, so they keep their place
+            List<Exam> ordered = new ArrayList<>();
+            List<Exam> touched = new ArrayList<>();
+            for (Exam exam : previous.getAllExams()) {
+                (changes.touches(exam) ? touched : ordered).add(exam);
+            }
+            ordered.sort((a, b) -> a.getCourse().getCourseCode().compareTo(b.getCourse().getCourseCode()));
+            touched.sort((a, b) -> a.getCourse().getCourseCode().compareTo(b.getCourse().getCourseCode()));
+            ordered.addAll(touched);
+
+            int[] previousSlot = new int[graph.size()];
+            Arrays.fill(previousSlot, -1);
+            boolean[] queued = new boolean[graph.size()];
+            List<Integer> unplaced = new ArrayList<>();
+            for (Exam exam : ordered) {
+                int c = graph.indexOf(exam.getCourse().getCourseCode());
+                if (c < 0)
+                    continue; // the course was removed
+                int slot = placement.slotOrdinal(exam.getSlot());
+                previousSlot[c] = slot;
+                if (slot >= 0 && placement.isStudentFeasible(c, slot)) {
+                    if (placement.keep(exam) != null)
+                        continue;
+                    if (placement.tryPlace(c, slot) != null) {
+                        reroomedCourses.add(exam.getCourse().getCourseCode());
+                        continue;
+                    }
+                }
+                queued[c] = true;
+                unplaced.add(c);
+            }
+            for (int c = 0; c < graph.size(); c++) {
+                if (!placement.isPlaced(c) && !queued[c])
+                    unplaced.add(c);
+            }
+
+            // the most constrained exams go back first
+            unplaced.sort((a, b) -> Integer.compare(graph.degree(b), graph.degree(a)));
+            for (int c : unplaced) {
+                if (!reinsert(placement, c, previousSlot))
+                    return null;
+            }
+
+            for (int c = 0; c < graph.size(); c++) {
+                if (placement.slotOf(c) != previousSlot[c])
+                    movedCourses.add(graph.getCourse(c).getCourseCode());
+            }
+            SchedulingResult result = new SchedulingResult(placement.getSchedule());
+            result.setPenaltyScore(PenaltyEvaluator.evaluate(placement.getLoadTracker()));
+            return result;
+        } finally {
+            placement.detach();
+        }
+    }
+
+    // Nearest feasible slot to where the exam was, or else the nearest slot that frees up by
+    // moving a few conflicting exams somewhere else.
+    private boolean reinsert(PlacementEngine placement, int c, int[] previousSlot) {
+        int[] order = slotsByDistance(placement, previousSlot[c]);
+        for (int slot : order) {
+            if (placement.tryPlace(c, slot) != null)
+                return true;
+        }
+        for (int slot : order) {
+            if (placeByEjection(placement, c, slot))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean placeByEjection(PlacementEngine placement, int c, int slot) {
+        ConflictGraph graph = placement.getConflictGraph();
+        Set<Integer> blockers = new LinkedHashSet<>();
+        for (int n : graph.neighbours(c)) {
+            int s = placement.slotOf(n);
+            if (s >= 0 && (s == slot || s == placement.previousSlot(slot) || s == placement.nextSlot(slot)))
+                blockers.add(n);
+            if (blockers.size() > MAX_EJECTIONS)
+                return false;
+        }
+        if (blockers.isEmpty())
+            return false; // blocked by rooms or the daily limit only
+
+        Schedule schedule = placement.getSchedule();
+        List<Exam> ejected = new ArrayList<>();
+        for (int b : blockers) {
+            Exam exam = placement.getExam(b);
+            ejected.add(exam);
+            schedule.removeExam(exam);
+        }
+
+        Exam placed = placement.tryPlace(c, slot);
+        List<Exam> moved = new ArrayList<>();
+        if (placed != null) {
+            for (Exam exam : ejected) {
+                int b = graph.indexOf(exam.getCourse());
+                Exam again = null;
+                for (int s : slotsByDistance(placement, placement.slotOrdinal(exam.getSlot()))) {
+                    if (s != slot && (again = placement.tryPlace(b, s)) != null)
+                        break;
+                }
+                if (again == null)
+                    break;
+                moved.add(again);
+            }
+            if (moved.size() == ejected.size())
+                return true;
+        }
+
+        // undo
+        for (Exam exam : moved) {
+            schedule.removeExam(exam);
+        }
+        if (placed != null)
+            schedule.removeExam(placed);
+        for (Exam exam : ejected) {
+            schedule.addExam(exam);
+        }
+        return false;
+    }
+
+    // Slot ordinals by distance from the given one, same day first; plain order if there is none.
+    private static int[] slotsByDistance(PlacementEngine placement, int from) {
+        List<Slot> slots = placement.getSlots();
+        Integer[] order = new Integer[slots.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        if (from >= 0) {
+            Slot origin = slots.get(from);
+            Arrays.sort(order, (a, b) -> {
+                Slot sa = slots.get(a);
+                Slot sb = slots.get(b);
+                int byDay = Integer.compare(Math.abs(sa.getDay() - origin.getDay()), Math.abs(sb.getDay() - origin.getDay()));
+                if (byDay != 0)
+                    return byDay;
+                return Integer.compare(Math.abs(sa.getIndex() - origin.getIndex()), Math.abs(sb.getIndex() - origin.getIndex()));
+            });
+        }
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,385 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.Classroom;
+import com.example.scheduler.model.Course;
+import com.example.scheduler.model.DataRepository;
+import com.example.scheduler.model.Exam;
+import com.example.scheduler.model.Schedule;
+import com.example.scheduler.model.Slot;
+import com.example.scheduler.model.Student;
+import com.example.scheduler.model.StudentIndex;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// The whole repository (and optionally a schedule) in one binary file, so a restart can skip
+// parsing the CSVs. The header holds a magic number, the format version, the size, modification
+// time and CRC32 of every source CSV, and the offset, length and CRC32 of the data and schedule
+// sections. A snapshot whose version, sources or data checksum do not match is ignored, so editing
+// a CSV brings the next start back to the CSVs; a damaged schedule section only drops the schedule.
+// A source of the same size and time is taken as unchanged; only when the time differs is it read
+// to compare the CRC. So an edit that keeps both the size and the modification time (a tool that
+// restores the time, or two saves within the file system's time resolution) goes unnoticed until
+// the snapshot is deleted or the CSV touched. The file is read through a channel into heap buffers
+// and nothing of it stays open or mapped, so it can be replaced (or the CSVs edited) on every
+// platform; the schedule section is kept as bytes and decoded only when asked for. Enrollments are
+// stored as the courses' ordinal arrays, which are checked against the student index on loading.
+public class RepositorySnapshot {
+
+    public static final String DEFAULT_FILE_NAME = "exam_data.snapshot";
+
+    private static final int MAGIC = 0x45585353; // "EXSS"
+    private static final int VERSION = 3;
+    private static final int NO_ORDINAL = -1;
+    private static final int READ_BUFFER = 1 << 20;
+
+    private final Path file;
+    private final List<Path> sources;
+
+    // From the last successful load, for loadSchedule
+    private byte[] scheduleBytes;
+    private List<Course> loadedCourses;
+    private List<Classroom> loadedRooms;
+    private List<Slot> loadedSlots;
+
+    public RepositorySnapshot(Path file, List<Path> sources) {
+        this.file = file;
+        this.sources = new ArrayList<>(sources);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Writes the repository and, if not null, the schedule. Call it only while the repository still
+    // holds what was read from the sources, since their checksums are what the snapshot is valid
+    // for. The file is replaced in one move, so a reader never sees half of it.
+    public void write(DataRepository repo, Schedule schedule) throws IOException {
+        scheduleBytes = null;
+        List<Course> courses = new ArrayList<>(repo.getCourses().values());
+        List<Classroom> rooms = repo.getClassrooms();
+        List<Slot> slots = repo.getSlots();
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        writeData(new DataOutputStream(data), repo, courses, rooms, slots);
+        ByteArrayOutputStream exams = new ByteArrayOutputStream();
+        if (schedule != null)
+            writeSchedule(new DataOutputStream(exams), schedule, courses, rooms, slots);
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(sources.size());
+        for (Path source : sources) {
+            // the time is taken first, so a change while the CRC is read shows up as a newer time
+            long modified = Files.getLastModifiedTime(source).toMillis();
+            out.writeLong(Files.size(source));
+            out.writeLong(modified);
+            out.writeLong(checksum(source));
+        }
+        long dataOffset = header.size() + 6 * Long.BYTES;
+        out.writeLong(dataOffset);
+        out.writeLong(data.size());
+        out.writeLong(checksum(data.toByteArray()));
+        out.writeLong(schedule == null ? 0 : dataOffset + data.size());
+        out.writeLong(exams.size());
+        out.writeLong(checksum(exams.toByteArray()));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream target = Files.newOutputStream(temp)) {
+            header.writeTo(target);
+            data.writeTo(target);
+            exams.writeTo(target);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Replaces the repository's data with the snapshot's. Returns false, leaving the repository
+    // alone, if there is no snapshot or it is stale, of another version or damaged.
+    public boolean load(DataRepository repo) throws IOException {
+        scheduleBytes = null;
+        if (!Files.isRegularFile(file))
+            return false;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 0, 3 * Integer.BYTES);
+            if (header == null || header.getInt() != MAGIC || header.getInt() != VERSION
+                    || header.getInt() != sources.size())
+                return false;
+            ByteBuffer sections = read(channel, 3 * Integer.BYTES, (3L * sources.size() + 6) * Long.BYTES);
+            if (sections == null)
+                return false;
+            for (Path source : sources) {
+                if (!isCurrent(source, sections.getLong(), sections.getLong(), sections.getLong()))
+                    return false;
+            }
+            long dataOffset = sections.getLong();
+            long dataLength = sections.getLong();
+            long dataCrc = sections.getLong();
+            long examsOffset = sections.getLong();
+            long examsLength = sections.getLong();
+            long examsCrc = sections.getLong();
+
+            ByteBuffer data = read(channel, dataOffset, dataLength);
+            if (data == null || checksum(data.array()) != dataCrc)
+                return false;
+            readData(data, repo);
+            ByteBuffer exams = examsOffset == 0 ? null : read(channel, examsOffset, examsLength);
+            scheduleBytes = exams == null || checksum(exams.array()) != examsCrc ? null : exams.array();
+            return true;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    // The schedule stored with the data of the last successful load, or null if there is none.
+    public Schedule loadSchedule() {
+        if (scheduleBytes == null)
+            return null;
+        ByteBuffer bytes = ByteBuffer.wrap(scheduleBytes);
+        try {
+            Schedule schedule = new Schedule();
+            int examCount = readCount(bytes, 3 * Integer.BYTES);
+            for (int e = 0; e < examCount; e++) {
+                Course course = loadedCourses.get(bytes.getInt());
+                Slot slot = loadedSlots.get(bytes.getInt());
+                int roomCount = readCount(bytes, Integer.BYTES);
+                List<Classroom> assigned = new ArrayList<>(roomCount);
+                for (int r = 0; r < roomCount; r++) {
+                    assigned.add(loadedRooms.get(bytes.getInt()));
+                }
+                schedule.addExam(new Exam(course, slot, assigned));
+            }
+            return schedule;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private static void writeData(DataOutputStream out, DataRepository repo, List<Course> courses,
+            List<Classroom> rooms, List<Slot> slots) throws IOException {
+        StudentIndex index = repo.getStudentIndex();
+        out.writeInt(index.size());
+        for (int i = 0; i < index.size(); i++) {
+            writeString(out, index.idOf(i));
+        }
+
+        out.writeInt(repo.getStudents().size());
+        for (String id : repo.getStudents().keySet()) {
+            int ordinal = index.indexOf(id);
+            out.writeInt(ordinal);
+            if (ordinal == NO_ORDINAL)
+                writeString(out, id);
+        }
+
+        out.writeInt(courses.size());
+        for (Course course : courses) {
+            writeString(out, course.getCourseCode());
+            int[] ordinals = course.getStudentOrdinals();
+            out.writeInt(course.getStudentCount());
+            for (int i = 0; i < course.getStudentCount(); i++) {
+                out.writeInt(ordinals[i]);
+            }
+        }
+
+        out.writeInt(rooms.size());
+        for (Classroom room : rooms) {
+            writeString(out, room.getRoomId());
+            out.writeInt(room.getCapacity());
+        }
+
+        out.writeInt(slots.size());
+        for (Slot slot : slots) {
+            out.writeInt(slot.getDay());
+            out.writeInt(slot.getIndex());
+            writeString(out, slot.getTimeRange());
+        }
+        out.flush();
+    }
+
+    private static void writeSchedule(DataOutputStream out, Schedule schedule, List<Course> courses,
+            List<Classroom> rooms, List<Slot> slots) throws IOException {
+        Map<String, Integer> courseNo = new HashMap<>();
+        for (int i = 0; i < courses.size(); i++) {
+            courseNo.put(courses.get(i).getCourseCode(), i);
+        }
+        Map<String, Integer> roomNo = new HashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            roomNo.put(rooms.get(i).getRoomId(), i);
+        }
+        Map<Slot, Integer> slotNo = new HashMap<>();
+        for (int i = 0; i < slots.size(); i++) {
+            slotNo.putIfAbsent(slots.get(i), i);
+        }
+
+        // exams on courses, rooms or slots the repository no longer has are left out
+        List<int[]> exams = new ArrayList<>();
+        for (Exam exam : schedule.getAllExams()) {
+            Integer c = courseNo.get(exam.getCourse().getCourseCode());
+            Integer s = slotNo.get(exam.getSlot());
+            if (c == null || s == null)
+                continue;
+            List<Classroom> assigned = exam.getAssignedRooms();
+            int[] row = new int[3 + assigned.size()];
+            row[0] = c;
+            row[1] = s;
+            row[2] = assigned.size();
+            boolean known = true;
+            for (int r = 0; r < assigned.size() && known; r++) {
+                Integer room = roomNo.get(assigned.get(r).getRoomId());
+                known = room != null;
+                if (known)
+                    row[3 + r] = room;
+            }
+            if (known)
+                exams.add(row);
+        }
+
+        out.writeInt(exams.size());
+        for (int[] row : exams) {
+            for (int value : row) {
+                out.writeInt(value);
+            }
+        }
+        out.flush();
+    }
+
+    private void readData(ByteBuffer bytes, DataRepository repo) {
+        StudentIndex index = new StudentIndex();
+        int indexSize = readCount(bytes, Integer.BYTES);
+        byte[] scratch = new byte[64];
+        for (int i = 0; i < indexSize; i++) {
+            index.intern(readString(bytes, scratch));
+        }
+
+        int studentCount = readCount(bytes, Integer.BYTES);
+        List<Student> students = new ArrayList<>(studentCount);
+        for (int i = 0; i < studentCount; i++) {
+            int ordinal = bytes.getInt();
+            if (ordinal != NO_ORDINAL)
+                checkOrdinal(ordinal, indexSize);
+            students.add(new Student(ordinal == NO_ORDINAL ? readString(bytes, scratch) : index.idOf(ordinal)));
+        }
+
+        int courseCount = readCount(bytes, 2 * Integer.BYTES);
+        List<Course> courses = new ArrayList<>(courseCount);
+        int[] ordinals = new int[0];
+        for (int i = 0; i < courseCount; i++) {
+            Course course = new Course(readString(bytes, scratch), index);
+            int count = readCount(bytes, Integer.BYTES);
+            if (count > ordinals.length)
+                ordinals = new int[count];
+            bytes.asIntBuffer().get(ordinals, 0, count);
+            bytes.position(bytes.position() + count * Integer.BYTES);
+            for (int k = 0; k < count; k++) {
+                checkOrdinal(ordinals[k], indexSize);
+            }
+            course.addStudents(ordinals, count);
+            courses.add(course);
+        }
+
+        int roomCount = readCount(bytes, 2 * Integer.BYTES);
+        List<Classroom> rooms = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(new Classroom(readString(bytes, scratch), bytes.getInt()));
+        }
+
+        int slotCount = readCount(bytes, 3 * Integer.BYTES);
+        List<Slot> slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            int day = bytes.getInt();
+            int slotIndex = bytes.getInt();
+            slots.add(new Slot(day, slotIndex, readString(bytes, scratch)));
+        }
+
+        repo.restore(index, students, courses, rooms, slots);
+        loadedCourses = courses;
+        loadedRooms = repo.getClassrooms();
+        loadedSlots = repo.getSlots();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(ByteBuffer bytes, byte[] scratch) {
+        int length = readCount(bytes, 1);
+        byte[] buffer = length <= scratch.length ? scratch : new byte[length];
+        bytes.get(buffer, 0, length);
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // A count of items of at least itemBytes each; one the rest of the buffer cannot hold is
+    // damage, and is refused before anything of that size is allocated.
+    private static int readCount(ByteBuffer bytes, int itemBytes) {
+        int count = bytes.getInt();
+        if (count < 0 || (long) count * itemBytes > bytes.remaining())
+            throw new IllegalArgumentException("Damaged snapshot: count " + count);
+        return count;
+    }
+
+    private static void checkOrdinal(int ordinal, int indexSize) {
+        if (ordinal < 0 || ordinal >= indexSize)
+            throw new IllegalArgumentException("Damaged snapshot: student ordinal " + ordinal);
+    }
+
+    // Whether the source is still what the snapshot was made from: same size, and either the same
+    // modification time or, when only the time changed (a touch, a copy), the same CRC.
+    private static boolean isCurrent(Path source, long size, long modified, long crc) throws IOException {
+        if (!Files.isRegularFile(source) || Files.size(source) != size)
+            return false;
+        return Files.getLastModifiedTime(source).toMillis() == modified || checksum(source) == crc;
+    }
+
+    // length bytes of the file from offset, in a heap buffer, or null if the file is not that long.
+    private static ByteBuffer read(FileChannel channel, long offset, long length) throws IOException {
+        if (offset < 0 || length < 0 || length > Integer.MAX_VALUE || offset + length > channel.size())
+            return null;
+        ByteBuffer bytes = ByteBuffer.allocate((int) length);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, offset + bytes.position()) < 0)
+                return null;
+        }
+        return bytes.flip();
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static long checksum(Path source) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                crc.update(buffer.flip());
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -6,144 +6,242 @@ import java.util.*;
 public class SchedulingEngine {
 
     private final DataRepository repo;
+    private final SchedulingStrategy strategy;
+    private final SchedulingOptions options;
+    private RuntimeException lastFailure;
+    private int keptFromSeed;
+    private FeasibilityReport lastPrecheck;
 
     public SchedulingEngine(DataRepository repo) {
-        this.repo = repo;
+        this(repo, new GreedyStrategy());
     }
 
-    public List<SchedulingResult> generateRankedSolutions() {
-        List<SchedulingResult> results = new ArrayList<>();
-        try {
-            results.add(attemptScheduling());
-        } catch (RuntimeException ignored) {
-            // no feasible schedule
-        }
-        return results;
+    public SchedulingEngine(DataRepository repo, SchedulingStrategy strategy) {
+        this(repo, strategy, new SchedulingOptions());
     }
 
-    private SchedulingResult attemptScheduling() {
-        Schedule schedule = new Schedule();
-        SchedulingResult result = new SchedulingResult(schedule);
-
-        List<Slot> slots = repo.getSlots();
-        List<Course> courses = new ArrayList<>(repo.getCourses().values());
+    public SchedulingEngine(DataRepository repo, SchedulingStrategy strategy, SchedulingOptions options) {
+        this.repo = repo;
+        this.strategy = strategy;
+        this.options = options;
+    }
 
-        courses.sort(Comparator.comparingInt(Course::getStudentCount).reversed());
+    public SchedulingStrategy getStrategy() {
+        return strategy;
+    }
 
-        for (Course course : courses) {
-            boolean placed = false;
+    // Feasible schedules, lowest penalty first. With a portfolio size above 1 several
+    // diversified attempts run concurrently and the best topK are kept.
+    public List<SchedulingResult> generateRankedSolutions() {
+        return generateRankedSolutions(new SolverMonitor());
+    }
 
-            for (Slot slot : slots) {
-                List<Classroom> rooms = assignRoomsForCourse(course);
-                if (rooms == null)
-                    continue;
+    // Same, but stops when the monitor is cancelled or past its deadline. A stopped run returns the
+    // best result seen so far; if no attempt got to the end, that is a partial schedule whose
+    // relaxations name the courses that are still unplaced.
+    public List<SchedulingResult> generateRankedSolutions(SolverMonitor monitor) {
+        List<SchedulingResult> results = new ArrayList<>();
+        lastFailure = null;
+        ConflictGraph graph = new ConflictGraph(repo.getCourses().values());
+
+        // inputs that no schedule can satisfy fail here in milliseconds instead of after a full search
+        lastPrecheck = new FeasibilityAnalyzer(repo).analyze(repo.getSlots(), graph);
+        if (!lastPrecheck.isFeasible()) {
+            lastFailure = new InfeasibleScheduleException(lastPrecheck.toString(), true);
+            monitor.setPhase("Done");
+            return results;
+        }
 
-                Exam candidate = new Exam(course, slot, rooms);
+        SchedulingStrategy first = strategy;
+        if (options.isDecomposeComponents() && graph.connectedComponents().length > 1) {
+            first = new ComponentStrategy(strategy, options.getParallelism());
+        }
 
-                boolean hardConflict = false;
-                boolean consecutiveViolation = false;
+        monitor.setPhase("Constructing");
+        if (options.getPortfolioSize() > 1) {
+            PortfolioSolver portfolio = new PortfolioSolver(repo, options);
+            results.addAll(portfolio.solve(repo.getSlots(), graph, first, monitor));
+            lastFailure = portfolio.getLastFailure();
+        } else {
+            try {
+                results.add(runAttempt(repo, repo.getSlots(), graph, first, monitor));
+            } catch (RuntimeException e) {
+                lastFailure = e;
+            }
+        }
 
-                for (Exam existing : schedule.getAllExams()) {
-                    if (sameSlotStudentConflict(candidate, existing) || roomOccupancyConflict(candidate, existing)) {
-                        hardConflict = true;
-                        break;
-                    }
-                    if (violatesConsecutiveRule(candidate, existing)) {
-                        consecutiveViolation = true;
-                        break;
-                    }
-                }
+        // the heuristics got stuck: let the complete search find a schedule or prove there is none
+        if (results.isEmpty() && !monitor.isStopped() && options.isBacktrackingFallback()
+                && !(strategy instanceof BacktrackingStrategy)) {
+            monitor.setPhase("Complete search");
+            try {
+                results.add(runAttempt(repo, repo.getSlots(), graph, new BacktrackingStrategy(options), monitor));
+            } catch (RuntimeException fallbackFailure) {
+                lastFailure = fallbackFailure;
+            }
+        }
 
-                if (hardConflict)
-                    continue;
-                if (consecutiveViolation)
-                    continue;
+        // exact search from the best schedule so far: a better one, or a bound on how far it is from optimal
+        if (!results.isEmpty() && graph.size() <= options.getExactSearchMaxCourses() && !monitor.isStopped()) {
+            monitor.setPhase("Branch and bound");
+            BranchAndBoundStrategy exact = new BranchAndBoundStrategy(options, BranchAndBoundStrategy.Objective.MIN_PENALTY);
+            exact.setIncumbent(results.get(0).getSchedule());
+            try {
+                // first, so it wins the tie (and keeps its bound) when it returns the incumbent itself
+                results.add(0, runAttempt(repo, repo.getSlots(), graph, exact, monitor));
+                results = PortfolioSolver.rank(results, options.getTopK());
+            } catch (SolverStoppedException e) {
+                // keep the portfolio results
+            } catch (RuntimeException e) {
+                lastFailure = e;
+            }
+        }
 
-                boolean maxTwoViolation = violatesMaxTwoPerDay(candidate, schedule);
-                if (maxTwoViolation)
-                    continue;
+        // polish the best schedule; it only replaces the others if it ends up ranked higher
+        if (!results.isEmpty() && options.getLocalSearchMillis() > 0 && !monitor.isStopped()) {
+            monitor.setPhase("Optimizing");
+            LocalSearchOptimizer optimizer = new LocalSearchOptimizer(repo, options);
+            results.add(0, optimizer.optimize(results.get(0), repo.getSlots(), graph, monitor));
+            results = PortfolioSolver.rank(results, options.getTopK());
+        }
 
-                schedule.addExam(candidate);
-                placed = true;
-                break;
-            }
+        // ruin and recreate on the polished schedule, for clusters the single moves cannot untangle
+        if (!results.isEmpty() && options.getLargeNeighbourhoodMillis() > 0 && !monitor.isStopped()) {
+            monitor.setPhase("Ruin and recreate");
+            LargeNeighbourhoodSearch lns = new LargeNeighbourhoodSearch(repo, options);
+            results.add(0, lns.optimize(results.get(0), repo.getSlots(), graph, monitor));
+            results = PortfolioSolver.rank(results, options.getTopK());
+        }
 
-            if (!placed) {
-                throw new RuntimeException("No feasible slot found for " + course.getCourseCode());
-            }
+        // long unattended runs: the island-model genetic algorithm from the best schedule so far
+        if (!results.isEmpty() && options.getGeneticMillis() > 0 && !monitor.isStopped()) {
+            monitor.setPhase("Evolving");
+            IslandGeneticOptimizer genetic = new IslandGeneticOptimizer(repo, options);
+            results.add(0, genetic.optimize(results.get(0), repo.getSlots(), graph, monitor));
+            results = PortfolioSolver.rank(results, options.getTopK());
         }
 
-        return result;
+        if (results.isEmpty() && monitor.getBestResult() != null) {
+            results.add(monitor.getBestResult());
+        }
+        for (SchedulingResult r : results) {
+            monitor.offer(r);
+        }
+        monitor.setPhase(monitor.isStopped() ? "Stopped" : "Done");
+        return results;
     }
 
-    public List<Classroom> assignRoomsForCourse(Course course) {
-        int needed = course.getStudentCount();
-        List<Classroom> rooms = new ArrayList<>(repo.getClassrooms());
-        rooms.sort(Comparator.comparingInt(Classroom::getCapacity).reversed());
+    // Why the last generateRankedSolutions call found nothing, or null.
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
 
-        List<Classroom> assigned = new ArrayList<>();
-        int total = 0;
-        for (Classroom room : rooms) {
-            assigned.add(room);
-            total += room.getCapacity();
-            if (total >= needed)
-                break;
-        }
-        return (total < needed) ? null : assigned;
+    // The bounds checked before the last search, or null if none ran yet.
+    public FeasibilityReport getLastPrecheck() {
+        return lastPrecheck;
     }
 
-    private boolean sameStudentConflict(Exam a, Exam b) {
-        for (String s : a.getCourse().getStudentIds()) {
-            if (b.getCourse().getStudentIds().contains(s))
-                return true;
-        }
-        return false;
+    // Throws the failed bounds of a FeasibilityAnalyzer pass as a proven InfeasibleScheduleException.
+    private void requireFeasible() {
+        lastPrecheck = new FeasibilityAnalyzer(repo).analyze();
+        if (!lastPrecheck.isFeasible())
+            throw new InfeasibleScheduleException("Could not generate any feasible schedule. " + lastPrecheck, true);
     }
 
-    private boolean violatesConsecutiveRule(Exam a, Exam b) {
-        if (!sameStudentConflict(a, b))
-            return false;
+    // One strategy run on a fresh schedule, scored with the soft-constraint penalty.
+    static SchedulingResult runAttempt(DataRepository repo, List<Slot> slots, ConflictGraph graph,
+            SchedulingStrategy strategy) {
+        return runAttempt(repo, slots, graph, strategy, new SolverMonitor());
+    }
 
-        return (a.getSlot().getDay() == b.getSlot().getDay()) &&
-                (Math.abs(a.getSlot().getIndex() - b.getSlot().getIndex()) == 1);
+    // When the monitor stops the run, the partial schedule is offered to it before the exception moves on.
+    static SchedulingResult runAttempt(DataRepository repo, List<Slot> slots, ConflictGraph graph,
+            SchedulingStrategy strategy, SolverMonitor monitor) {
+        PlacementEngine placement = new PlacementEngine(repo, slots, graph);
+        placement.setMonitor(monitor);
+        try {
+            SchedulingResult result = strategy.schedule(placement);
+            result.setPenaltyScore(result.getPenaltyScore() + PenaltyEvaluator.evaluate(placement.getLoadTracker()));
+            monitor.offer(result);
+            return result;
+        } catch (SolverStoppedException e) {
+            monitor.offer(partialResult(placement));
+            throw e;
+        } finally {
+            placement.detach();
+        }
     }
 
-    private boolean roomOccupancyConflict(Exam a, Exam b) {
-        if (a.getSlot().getDay() != b.getSlot().getDay() || a.getSlot().getIndex() != b.getSlot().getIndex())
-            return false;
-        for (Classroom r1 : a.getAssignedRooms()) {
-            for (Classroom r2 : b.getAssignedRooms()) {
-                if (r1.getRoomId().equals(r2.getRoomId()))
-                    return true;
+    static SchedulingResult partialResult(PlacementEngine placement) {
+        SchedulingResult partial = new SchedulingResult(placement.getSchedule());
+        ConflictGraph graph = placement.getConflictGraph();
+        for (int c = 0; c < graph.size(); c++) {
+            if (!placement.isPlaced(c)) {
+                partial.addRelaxation(graph.getCourse(c).getCourseCode()
+                        + " was not scheduled before the search stopped.", 0);
             }
         }
-        return false;
-    }
-
-    private boolean violatesMaxTwoPerDay(Exam candidate, Schedule schedule) {
-        int day = candidate.getSlot().getDay();
-        for (String student : candidate.getCourse().getStudentIds()) {
-            int count = 0;
-            for (Exam e : schedule.getAllExams()) {
-                if (e.getSlot().getDay() == day && e.getCourse().getStudentIds().contains(student)) {
-                    count++;
-                    if (count >= 2)
-                        return true;
-                }
+        partial.setPenaltyScore(PenaltyEvaluator.evaluate(placement.getLoadTracker()));
+        return partial;
+    }
+
+    // Brings the previous schedule up to date with the data changes by repairing it. When the
+    // repair gets stuck (or the data was reloaded) the previous schedule seeds a warm start, and
+    // without changes or a previous schedule it solves from scratch.
+    public SchedulingResult repairOrSolve(Schedule previous, ChangeSet changes, SolverMonitor monitor) {
+        if (previous == null || changes.isEmpty())
+            return solve(monitor);
+        requireFeasible();
+        if (!changes.isReloaded()) {
+            monitor.setPhase("Repairing");
+            SchedulingResult repaired = new RepairEngine(repo).repair(previous, changes);
+            if (repaired != null) {
+                monitor.offer(repaired);
+                monitor.setPhase("Done");
+                return repaired;
             }
         }
-        return false;
+        return warmStart(previous, monitor);
     }
 
-    private boolean sameSlotStudentConflict(Exam a, Exam b) {
-        return a.getSlot().equals(b.getSlot()) && sameStudentConflict(a, b);
+    // Warm start from an earlier schedule (see WarmStartSolver); falls back to a cold solve if the
+    // remaining courses cannot be placed around the seed.
+    public SchedulingResult solveFrom(Schedule seed, SolverMonitor monitor) {
+        requireFeasible();
+        return warmStart(seed, monitor);
+    }
+
+    private SchedulingResult warmStart(Schedule seed, SolverMonitor monitor) {
+        WarmStartSolver warmStart = new WarmStartSolver(repo, strategy, options);
+        SchedulingResult result = warmStart.solve(seed, repo.getSlots(),
+                new ConflictGraph(repo.getCourses().values()), monitor);
+        keptFromSeed = warmStart.getKeptCount();
+        if (result != null)
+            return result;
+        return solve(monitor);
+    }
+
+    // How many exams of the seed the last solveFrom kept in their slot.
+    public int getKeptFromSeed() {
+        return keptFromSeed;
     }
 
     public Schedule generateExamSchedule() {
-        List<SchedulingResult> solutions = generateRankedSolutions();
-        if (solutions.isEmpty())
-            throw new RuntimeException("Could not generate any feasible schedule.");
-        return solutions.get(0).getSchedule();
+        return solve(new SolverMonitor()).getSchedule();
+    }
+
+    // The best result within the monitor's limits; throws if not even a partial schedule exists.
+    public SchedulingResult solve(SolverMonitor monitor) {
+        List<SchedulingResult> solutions = generateRankedSolutions(monitor);
+        if (solutions.isEmpty()) {
+            String message = "Could not generate any feasible schedule.";
+            if (lastFailure instanceof InfeasibleScheduleException) {
+                throw new InfeasibleScheduleException(message + " " + lastFailure.getMessage(),
+                        ((InfeasibleScheduleException) lastFailure).isProven());
+            }
+            throw new RuntimeException(message);
+        }
+        return solutions.get(0);
     }
 
 }
@@ -0,0 +1,132 @@
+package com.example.scheduler.service;
+
+// Tunables of a scheduling run. The defaults keep an interactive run within a few seconds.
+public class SchedulingOptions {
+
+    // Backtracking search limits
+    private long nodeLimit = 2_000_000;
+    private long timeLimitMillis = 10_000;
+
+    // Run the complete backtracking search when the main strategy cannot place every course
+    private boolean backtrackingFallback = true;
+
+    // Portfolio: diversified attempts run concurrently, the best topK are returned
+    private int portfolioSize = 8;
+    private int topK = 3;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long seed = 1;
+
+    // Solve courses that share no students as separate problems
+    private boolean decomposeComponents = true;
+
+    // Local search on the best schedule found, 0 disables it
+    private long localSearchMillis = 1_000;
+
+    // Branch and bound for the least penalty after the portfolio, on instances up to this many
+    // courses; 0 disables it. Uses the backtracking node and time limits.
+    private int exactSearchMaxCourses = 0;
+
+    // Ruin-and-recreate search after the local search, 0 disables it. Uses parallelism workers.
+    private long largeNeighbourhoodMillis = 0;
+
+    // Island-model genetic algorithm after the other optimisers, 0 disables it. One island per
+    // parallelism thread; meant for long unattended runs.
+    private long geneticMillis = 0;
+
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    public long getTimeLimitMillis() {
+        return timeLimitMillis;
+    }
+
+    public void setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    public boolean isBacktrackingFallback() {
+        return backtrackingFallback;
+    }
+
+    public void setBacktrackingFallback(boolean backtrackingFallback) {
+        this.backtrackingFallback = backtrackingFallback;
+    }
+
+    public int getPortfolioSize() {
+        return portfolioSize;
+    }
+
+    // 1 turns the portfolio off: only the engine's own strategy runs.
+    public void setPortfolioSize(int portfolioSize) {
+        this.portfolioSize = portfolioSize;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public boolean isDecomposeComponents() {
+        return decomposeComponents;
+    }
+
+    public void setDecomposeComponents(boolean decomposeComponents) {
+        this.decomposeComponents = decomposeComponents;
+    }
+
+    public long getLocalSearchMillis() {
+        return localSearchMillis;
+    }
+
+    public void setLocalSearchMillis(long localSearchMillis) {
+        this.localSearchMillis = localSearchMillis;
+    }
+
+    public int getExactSearchMaxCourses() {
+        return exactSearchMaxCourses;
+    }
+
+    public void setExactSearchMaxCourses(int exactSearchMaxCourses) {
+        this.exactSearchMaxCourses = exactSearchMaxCourses;
+    }
+
+    public long getLargeNeighbourhoodMillis() {
+        return largeNeighbourhoodMillis;
+    }
+
+    public void setLargeNeighbourhoodMillis(long largeNeighbourhoodMillis) {
+        this.largeNeighbourhoodMillis = largeNeighbourhoodMillis;
+    }
+
+    public long getGeneticMillis() {
+        return geneticMillis;
+    }
+
+    public void setGeneticMillis(long geneticMillis) {
+        this.geneticMillis = geneticMillis;
+    }
+}
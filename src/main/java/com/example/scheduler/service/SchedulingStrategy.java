@@ -0,0 +1,13 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.SchedulingResult;
+
+// A way of filling a PlacementEngine with exams. Courses that are already placed are kept,
+// so a strategy can also finish a partially built schedule.
+public interface SchedulingStrategy {
+
+    String getName();
+
+    // Throws a RuntimeException when some course cannot be placed.
+    SchedulingResult schedule(PlacementEngine placement);
+}
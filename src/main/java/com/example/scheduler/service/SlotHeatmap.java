@@ -0,0 +1,153 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Every slot evaluated for an exam at once (feasibility and penalty change), plus a cached matrix
+// of those rows for all exams. Moving an exam only invalidates the rows it can affect: its own,
+// those of courses sharing a student with it and those of exams using one of its rooms.
+public class SlotHeatmap implements ScheduleListener {
+
+    private final Schedule schedule;
+    private final List<Slot> slots;
+    private final ConstraintIndex index;
+    private final ConflictGraph graph;
+
+    // position in the slot list of the slot right before / after on the same day, -1 if none
+    private final int[] previousSlot;
+    private final int[] nextSlot;
+
+    private final Map<Exam, List<SlotOption>> rows = new HashMap<>();
+    private final Set<Exam> dirty = new HashSet<>();
+    private Map<String, List<Exam>> examsByRoom;
+
+    public SlotHeatmap(Schedule schedule, List<Slot> slots, ConstraintIndex index, ConflictGraph graph) {
+        this.schedule = schedule;
+        this.slots = new ArrayList<>(slots);
+        this.index = index;
+        this.graph = graph;
+
+        Map<Slot, Integer> positions = new HashMap<>();
+        for (int i = 0; i < this.slots.size(); i++) {
+            positions.putIfAbsent(this.slots.get(i), i);
+        }
+        this.previousSlot = new int[this.slots.size()];
+        this.nextSlot = new int[this.slots.size()];
+        for (int i = 0; i < this.slots.size(); i++) {
+            Slot s = this.slots.get(i);
+            previousSlot[i] = positions.getOrDefault(new Slot(s.getDay(), s.getIndex() - 1, ""), -1);
+            nextSlot[i] = positions.getOrDefault(new Slot(s.getDay(), s.getIndex() + 1, ""), -1);
+        }
+    }
+
+    // Creates a heatmap over the schedule and registers it as a listener.
+    public static SlotHeatmap attach(Schedule schedule, List<Slot> slots, ConstraintIndex index, ConflictGraph graph) {
+        SlotHeatmap heatmap = new SlotHeatmap(schedule, slots, index, graph);
+        schedule.addListener(heatmap);
+        return heatmap;
+    }
+
+    // One option per slot, in slot order. The student rules come from a single sweep over the
+    // per-slot student counts; day rules and penalty are computed once per day.
+    public List<SlotOption> evaluate(Exam exam) {
+        StudentLoadTracker loads = index.getLoadTracker();
+        Course course = exam.getCourse();
+        int currentDay = exam.getSlot() == null ? 0 : exam.getSlot().getDay();
+
+        boolean[] busy = index.studentClashes(exam, slots);
+        Map<Integer, Boolean> dayLimitByDay = new HashMap<>();
+        Map<Integer, Integer> deltaByDay = new HashMap<>();
+
+        List<SlotOption> options = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            Slot slot = slots.get(i);
+            int day = slot.getDay();
+            boolean consecutive = (previousSlot[i] >= 0 && busy[previousSlot[i]])
+                    || (nextSlot[i] >= 0 && busy[nextSlot[i]]);
+            boolean dayLimit = dayLimitByDay.computeIfAbsent(day,
+                    d -> loads.wouldExceedAfterMove(exam, d, PlacementEngine.MAX_EXAMS_PER_DAY));
+            int delta = deltaByDay.computeIfAbsent(day,
+                    d -> PenaltyEvaluator.moveDelta(loads, course, currentDay, d));
+            options.add(new SlotOption(slot, busy[i], index.hasRoomClash(exam, slot), consecutive, dayLimit, delta));
+        }
+        return options;
+    }
+
+    // Rows for all exams; only rows invalidated since the last call are recomputed.
+    public Map<Exam, List<SlotOption>> getMatrix() {
+        if (rows.size() != schedule.getAllExams().size()) {
+            rows.keySet().retainAll(schedule.getAllExams());
+            for (Exam exam : schedule.getAllExams()) {
+                if (!rows.containsKey(exam))
+                    dirty.add(exam);
+            }
+        }
+        for (Exam exam : dirty) {
+            if (schedule.getExamByCourse(exam.getCourse().getCourseCode()) == exam)
+                rows.put(exam, evaluate(exam));
+        }
+        dirty.clear();
+
+        Map<Exam, List<SlotOption>> matrix = new LinkedHashMap<>();
+        for (Exam exam : schedule.getAllExams()) {
+            matrix.put(exam, rows.get(exam));
+        }
+        return matrix;
+    }
+
+    @Override
+    public void examAdded(Exam exam) {
+        invalidateAll();
+    }
+
+    @Override
+    public void examRemoved(Exam exam) {
+        invalidateAll();
+    }
+
+    @Override
+    public void examMoved(Exam exam, Slot oldSlot) {
+        dirty.add(exam);
+        int c = graph.indexOf(exam.getCourse());
+        if (c >= 0) {
+            for (int neighbour : graph.neighbours(c)) {
+                Exam other = schedule.getExamByCourse(graph.getCourse(neighbour).getCourseCode());
+                if (other != null)
+                    dirty.add(other);
+            }
+        }
+        if (exam.getAssignedRooms() != null) {
+            for (Classroom room : exam.getAssignedRooms()) {
+                dirty.addAll(getExamsByRoom().getOrDefault(room.getRoomId(), List.of()));
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        rows.clear();
+        dirty.clear();
+        examsByRoom = null;
+    }
+
+    // Rooms stay with an exam when it moves, so this only changes when exams are added or removed.
+    private Map<String, List<Exam>> getExamsByRoom() {
+        if (examsByRoom == null) {
+            examsByRoom = new HashMap<>();
+            for (Exam exam : schedule.getAllExams()) {
+                if (exam.getAssignedRooms() == null)
+                    continue;
+                for (Classroom room : exam.getAssignedRooms()) {
+                    examsByRoom.computeIfAbsent(room.getRoomId(), r -> new ArrayList<>()).add(exam);
+                }
+            }
+        }
+        return examsByRoom;
+    }
+}
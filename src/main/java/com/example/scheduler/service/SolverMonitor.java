@@ -0,0 +1,151 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.SchedulingResult;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shared between a solver run and whoever started it: carries the deadline and the cancel flag,
+// collects progress counters and keeps the best result seen so far, so a stopped run can still
+// hand back something usable. All methods are thread-safe.
+public class SolverMonitor {
+
+    public interface ProgressListener {
+        void progressChanged(SolverProgress progress);
+    }
+
+    private static final long PUBLISH_INTERVAL_MILLIS = 100;
+
+    private final long startMillis;
+    private final long deadline;
+    private final ProgressListener listener;
+    private final SolverMonitor parent;
+
+    private volatile boolean cancelled;
+    private volatile String phase = "Starting";
+    private volatile int coursesPlaced;
+    private volatile int totalCourses;
+    private volatile int bestPenalty = -1;
+    private volatile long lastPublished;
+    private final AtomicLong nodes = new AtomicLong();
+
+    private SchedulingResult bestResult;
+
+    // No deadline, no listener: runs until done unless cancelled.
+    public SolverMonitor() {
+        this(0, null);
+    }
+
+    // A time budget of 0 or less means no deadline.
+    public SolverMonitor(long timeBudgetMillis, ProgressListener listener) {
+        this.startMillis = System.currentTimeMillis();
+        this.deadline = timeBudgetMillis > 0 ? startMillis + timeBudgetMillis : Long.MAX_VALUE;
+        this.listener = listener;
+        this.parent = null;
+    }
+
+    // One of several searches run under the parent: shares its deadline, stops when the parent does
+    // and adds its nodes to the parent's count, but can also be cancelled on its own. Results are
+    // not passed on.
+    public SolverMonitor(SolverMonitor parent) {
+        this.startMillis = System.currentTimeMillis();
+        this.deadline = parent.deadline;
+        this.listener = null;
+        this.parent = parent;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || (parent != null && parent.isCancelled());
+    }
+
+    // Cancelled or past the deadline.
+    public boolean isStopped() {
+        return isCancelled() || System.currentTimeMillis() >= deadline;
+    }
+
+    public void checkStopped() {
+        if (isCancelled())
+            throw new SolverStoppedException("Scheduling was stopped.");
+        if (System.currentTimeMillis() >= deadline)
+            throw new SolverStoppedException("The scheduling time budget ran out.");
+    }
+
+    public void setPhase(String phase) {
+        this.phase = phase;
+        publish(true);
+    }
+
+    // Called by a constructive search every few nodes; throws SolverStoppedException once the run has to stop.
+    // With several searches running, the placed count shows the one that got furthest.
+    public void nodesExplored(long count, int placed, int total) {
+        if (placed > coursesPlaced)
+            coursesPlaced = placed;
+        totalCourses = total;
+        nodesExplored(count);
+        checkStopped();
+    }
+
+    // Counts nodes (or moves) without stopping the caller; it polls isStopped itself.
+    public void nodesExplored(long count) {
+        nodes.addAndGet(count);
+        if (parent != null)
+            parent.nodesExplored(count);
+        publish(false);
+    }
+
+    // A search found a schedule with this penalty but did not hand it over yet.
+    // Called from every thread of a portfolio, so the check and the update share the lock of offer.
+    public void penaltyFound(int penalty) {
+        synchronized (this) {
+            if (bestPenalty >= 0 && penalty >= bestPenalty)
+                return;
+            bestPenalty = penalty;
+        }
+        publish(false);
+    }
+
+    // Keeps the result if it beats the best one so far: fewer relaxations (unplaced courses of a
+    // stopped run) first, then lower penalty.
+    public void offer(SchedulingResult result) {
+        if (result == null)
+            return;
+        synchronized (this) {
+            if (bestResult != null && !isBetter(result, bestResult))
+                return;
+            bestResult = result;
+        }
+        coursesPlaced = result.getSchedule().getAllExams().size();
+        if (result.getRelaxations().isEmpty()) {
+            penaltyFound(result.getPenaltyScore());
+        }
+        publish(true);
+    }
+
+    public synchronized SchedulingResult getBestResult() {
+        return bestResult;
+    }
+
+    public SolverProgress getProgress() {
+        return new SolverProgress(phase, coursesPlaced, totalCourses, bestPenalty, nodes.get(),
+                System.currentTimeMillis() - startMillis);
+    }
+
+    private static boolean isBetter(SchedulingResult a, SchedulingResult b) {
+        if (a.getRelaxations().size() != b.getRelaxations().size())
+            return a.getRelaxations().size() < b.getRelaxations().size();
+        return a.getPenaltyScore() < b.getPenaltyScore();
+    }
+
+    private void publish(boolean force) {
+        if (listener == null)
+            return;
+        long now = System.currentTimeMillis();
+        if (!force && now - lastPublished < PUBLISH_INTERVAL_MILLIS)
+            return;
+        lastPublished = now;
+        listener.progressChanged(getProgress());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.scheduler.service;
+
+// Snapshot of a running solver, published through SolverMonitor.ProgressListener.
+public class SolverProgress {
+
+    private final String phase;
+    private final int coursesPlaced;
+    private final int totalCourses;
+    private final int bestPenalty;
+    private final long nodesExplored;
+    private final long elapsedMillis;
+
+    public SolverProgress(String phase, int coursesPlaced, int totalCourses, int bestPenalty,
+            long nodesExplored, long elapsedMillis) {
+        this.phase = phase;
+        this.coursesPlaced = coursesPlaced;
+        this.totalCourses = totalCourses;
+        this.bestPenalty = bestPenalty;
+        this.nodesExplored = nodesExplored;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public int getCoursesPlaced() {
+        return coursesPlaced;
+    }
+
+    public int getTotalCourses() {
+        return totalCourses;
+    }
+
+    // -1 until some schedule has been found
+    public int getBestPenalty() {
+        return bestPenalty;
+    }
+
+    public long getNodesExplored() {
+        return nodesExplored;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(phase);
+        sb.append(" | placed ").append(coursesPlaced).append('/').append(totalCourses);
+        sb.append(" | best penalty ").append(bestPenalty < 0 ? "-" : Integer.toString(bestPenalty));
+        sb.append(" | ").append(nodesExplored).append(" nodes");
+        sb.append(" | ").append(elapsedMillis / 1000).append('.').append(elapsedMillis % 1000 / 100).append(" s");
+        return sb.toString();
+    }
+}
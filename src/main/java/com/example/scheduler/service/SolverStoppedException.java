@@ -0,0 +1,11 @@
+package com.example.scheduler.service;
+
+// Thrown inside a solver run once its SolverMonitor was cancelled or ran past its deadline.
+public class SolverStoppedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SolverStoppedException(String message) {
+        super(message);
+    }
+}
@@ -24,7 +24,7 @@ public class StudentScheduleService {
         List<Exam> exams = new ArrayList<>();
 
         for (Exam e : schedule.getAllExams()) {
-            if (e.getCourse().getStudentIds().contains(studentId)) {
+            if (e.getCourse().containsStudent(studentId)) {
                 exams.add(e);
             }
         }
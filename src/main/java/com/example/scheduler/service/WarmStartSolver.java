@@ -0,0 +1,202 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Scheduling that starts from an earlier schedule instead of an empty one. Every exam of the seed
+// that is still valid stays in its slot (in other rooms if its own no longer fit) and the strategy
+// places the remaining courses around them. If it gets stuck, the seed exams blocking the stuck
+// course in its least blocked slot are released and queued again, a few times per course at most.
+// Local search then improves the exams that are not where the seed had them, with a time budget
+// in proportion to their number.
+public class WarmStartSolver {
+
+    private static final int MAX_RELEASES_PER_COURSE = 8;
+
+    private final DataRepository repo;
+    private final SchedulingStrategy strategy;
+    private final SchedulingOptions options;
+
+    private int keptCount;
+    private RuntimeException lastFailure;
+
+    public WarmStartSolver(DataRepository repo, SchedulingStrategy strategy, SchedulingOptions options) {
+        this.repo = repo;
+        this.strategy = strategy;
+        this.options = options;
+    }
+
+    // Exams of the seed that ended up in the same slot in the last result.
+    public int getKeptCount() {
+        return keptCount;
+    }
+
+    // Why the last solve returned null, or null.
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    // The result, or null if the remaining courses could not be placed around the seed. A stopped
+    // run returns the best result the monitor has.
+    public SchedulingResult solve(Schedule seed, List<Slot> slots, ConflictGraph graph, SolverMonitor monitor) {
+        keptCount = 0;
+        lastFailure = null;
+        PlacementEngine placement = new PlacementEngine(repo, slots, graph);
+        placement.setMonitor(monitor);
+        try {
+            monitor.setPhase("Constructing from seed");
+            int[] seedSlot = seed(placement, seed);
+
+            SchedulingResult result;
+            try {
+                result = strategy.schedule(placement);
+            } catch (SolverStoppedException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (!placeWithReleases(placement)) {
+                    lastFailure = e;
+                    return null;
+                }
+                result = new SchedulingResult(placement.getSchedule());
+            }
+            result.setPenaltyScore(result.getPenaltyScore() + PenaltyEvaluator.evaluate(placement.getLoadTracker()));
+            monitor.offer(result);
+
+            Set<String> kept = new HashSet<>();
+            for (int c = 0; c < graph.size(); c++) {
+                if (seedSlot[c] >= 0 && placement.slotOf(c) == seedSlot[c])
+                    kept.add(graph.getCourse(c).getCourseCode());
+            }
+            keptCount = kept.size();
+
+            int changed = graph.size() - kept.size();
+            if (changed > 0 && options.getLocalSearchMillis() > 0 && !monitor.isStopped()) {
+                monitor.setPhase("Optimizing");
+                LocalSearchOptimizer optimizer = new LocalSearchOptimizer(repo,
+                        Math.max(1, options.getLocalSearchMillis() * changed / graph.size()), options.getSeed());
+                optimizer.setFixedCourses(kept);
+                result = optimizer.optimize(result, slots, graph, monitor);
+                monitor.offer(result);
+            }
+            monitor.setPhase(monitor.isStopped() ? "Stopped" : "Done");
+            return result;
+        } catch (SolverStoppedException e) {
+            monitor.offer(SchedulingEngine.partialResult(placement));
+            monitor.setPhase("Stopped");
+            return monitor.getBestResult();
+        } finally {
+            placement.detach();
+        }
+    }
+
+    // Puts back the seed exams that are still valid; returns the seed slot ordinal of every course
+    // (-1 if it was not in the seed).
+    private static int[] seed(PlacementEngine placement, Schedule seed) {
+        ConflictGraph graph = placement.getConflictGraph();
+        int[] seedSlot = new int[graph.size()];
+        Arrays.fill(seedSlot, -1);
+
+        List<Exam> exams = new ArrayList<>(seed.getAllExams());
+        exams.sort(Comparator.comparing((Exam e) -> e.getCourse().getCourseCode()));
+        for (Exam exam : exams) {
+            int c = graph.indexOf(exam.getCourse().getCourseCode());
+            int slot = placement.slotOrdinal(exam.getSlot());
+            if (c < 0 || slot < 0)
+                continue;
+            seedSlot[c] = slot;
+            if (placement.keep(exam) == null)
+                placement.tryPlace(c, slot);
+        }
+        return seedSlot;
+    }
+
+    // Places the unplaced courses, most conflicts first, each into its best slot or else into the
+    // slot with the fewest placed conflicting exams in it and next to it, which are released and
+    // queued again. False once a course has been released too often or no slot can be freed.
+    private static boolean placeWithReleases(PlacementEngine placement) {
+        ConflictGraph graph = placement.getConflictGraph();
+        List<Integer> unplaced = new ArrayList<>();
+        for (int c = 0; c < graph.size(); c++) {
+            if (!placement.isPlaced(c))
+                unplaced.add(c);
+        }
+        unplaced.sort((a, b) -> Integer.compare(graph.degree(b), graph.degree(a)));
+        Deque<Integer> queue = new ArrayDeque<>(unplaced);
+        int[] releases = new int[graph.size()];
+
+        while (!queue.isEmpty()) {
+            int c = queue.poll();
+            if (placement.placeInBestSlot(c, true) != null)
+                continue;
+            List<Integer> released = releaseAndPlace(placement, c, releases);
+            if (released == null)
+                return false;
+            for (int r : released) {
+                releases[r]++;
+                queue.addFirst(r);
+            }
+        }
+        return true;
+    }
+
+    private static List<Integer> releaseAndPlace(PlacementEngine placement, int c, int[] releases) {
+        ConflictGraph graph = placement.getConflictGraph();
+        int slotCount = placement.slotCount();
+        int[] neighboursInSlot = new int[slotCount];
+        boolean[] pinned = new boolean[slotCount];
+        for (int n : graph.neighbours(c)) {
+            int s = placement.slotOf(n);
+            if (s < 0)
+                continue;
+            neighboursInSlot[s]++;
+            if (releases[n] >= MAX_RELEASES_PER_COURSE)
+                pinned[s] = true;
+        }
+
+        Integer[] order = new Integer[slotCount];
+        int[] blockers = new int[slotCount];
+        for (int s = 0; s < slotCount; s++) {
+            order[s] = s;
+            int prev = placement.previousSlot(s);
+            int next = placement.nextSlot(s);
+            blockers[s] = neighboursInSlot[s] + (prev >= 0 ? neighboursInSlot[prev] : 0)
+                    + (next >= 0 ? neighboursInSlot[next] : 0);
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer s) -> blockers[s]));
+
+        Schedule schedule = placement.getSchedule();
+        for (int slot : order) {
+            int prev = placement.previousSlot(slot);
+            int next = placement.nextSlot(slot);
+            if (blockers[slot] == 0 || pinned[slot] || (prev >= 0 && pinned[prev]) || (next >= 0 && pinned[next]))
+                continue;
+
+            List<Integer> released = new ArrayList<>();
+            List<Exam> removed = new ArrayList<>();
+            for (int n : graph.neighbours(c)) {
+                int s = placement.slotOf(n);
+                if (s >= 0 && (s == slot || s == prev || s == next)) {
+                    released.add(n);
+                    removed.add(placement.getExam(n));
+                }
+            }
+            for (Exam exam : removed) {
+                schedule.removeExam(exam);
+            }
+            if (placement.tryPlace(c, slot) != null)
+                return released;
+            for (Exam exam : removed) {
+                schedule.addExam(exam);
+            }
+        }
+        return null;
+    }
+}
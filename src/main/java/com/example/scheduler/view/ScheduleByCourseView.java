@@ -8,9 +8,14 @@ import javafx.collections.ObservableList;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.cell.TextFieldTableCell;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
 import javafx.util.converter.IntegerStringConverter;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("unchecked")
@@ -100,7 +105,24 @@ public class ScheduleByCourseView {
         TableColumn<CourseScheduleRow, Integer> countCol = new TableColumn<>("Students");
         countCol.setCellValueFactory(new PropertyValueFactory<>("studentCount"));
 
-        table.getColumns().addAll(courseCol, dayCol, slotCol, timeCol, roomCol, countCol);
+        TableColumn<CourseScheduleRow, Void> pickCol = new TableColumn<>("Move");
+        pickCol.setCellFactory(col -> new TableCell<>() {
+            private final Button pickButton = new Button("Pick Slot...");
+            {
+                pickButton.setOnAction(e -> {
+                    CourseScheduleRow row = getTableView().getItems().get(getIndex());
+                    showSlotPicker(row, table);
+                });
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty ? null : pickButton);
+            }
+        });
+
+        table.getColumns().addAll(courseCol, dayCol, slotCol, timeCol, roomCol, countCol, pickCol);
         // table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY); //
         // Deprecated
 
@@ -169,6 +191,108 @@ public class ScheduleByCourseView {
         }
     }
 
+    // Grid of all slots (days as rows) coloured by what moving the exam there would do:
+    // red cells break a rule, the others go from green (best penalty) to yellow (worst).
+    private void showSlotPicker(CourseScheduleRow row, TableView<CourseScheduleRow> table) {
+        Schedule schedule = controller.getSchedule();
+        Exam exam = schedule == null ? null : schedule.getExamByCourse(row.getCourseCode());
+        if (exam == null)
+            return;
+
+        List<SlotOption> options = controller.evaluateSlots(exam);
+        int best = Integer.MAX_VALUE;
+        int worst = Integer.MIN_VALUE;
+        for (SlotOption option : options) {
+            if (option.isFeasible()) {
+                best = Math.min(best, option.getPenaltyDelta());
+                worst = Math.max(worst, option.getPenaltyDelta());
+            }
+        }
+
+        Dialog<Slot> dialog = new Dialog<>();
+        dialog.setTitle("Pick Slot");
+        dialog.setHeaderText("Move " + row.getCourseCode() + " (now Day " + exam.getSlot().getDay()
+                + ", Slot " + exam.getSlot().getIndex() + ")");
+        dialog.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        // only a cell sets a Slot; Cancel or closing the window leaves no result
+        dialog.setResultConverter(button -> null);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(4);
+        grid.setVgap(4);
+        for (SlotOption option : options) {
+            Slot slot = option.getSlot();
+            Button cell = new Button(cellText(option));
+            cell.setPrefWidth(90);
+            cell.setStyle("-fx-background-color: " + cellColour(option, best, worst) + ";"
+                    + (slot.equals(exam.getSlot()) ? " -fx-border-color: black; -fx-border-width: 2;" : ""));
+            cell.setTooltip(new Tooltip(slot + "\n" + describe(option)));
+            cell.setOnAction(e -> {
+                dialog.setResult(slot);
+                dialog.close();
+            });
+            cell.setDisable(!option.isFeasible());
+            grid.add(cell, slot.getIndex(), slot.getDay());
+            if (slot.getIndex() == 1)
+                grid.add(new Label("Day " + slot.getDay()), 0, slot.getDay());
+            if (slot.getDay() == 1)
+                grid.add(new Label("Slot " + slot.getIndex() + "\n" + slot.getTimeRange()), slot.getIndex(), 0);
+        }
+
+        Label legend = new Label("Numbers are the change in penalty. Blocked cells: S = shared students in the slot, "
+                + "R = room taken, C = consecutive exams, D = more than two exams a day.");
+        legend.setWrapText(true);
+        legend.setMaxWidth(600);
+        dialog.getDialogPane().setContent(new VBox(10, new ScrollPane(grid), legend));
+
+        Optional<Slot> picked = dialog.showAndWait();
+        if (picked.isPresent()) {
+            row.setDay(picked.get().getDay());
+            row.setSlotIndex(picked.get().getIndex());
+            applyRowToSchedule(row, table);
+        }
+    }
+
+    private static String cellText(SlotOption option) {
+        if (option.isFeasible())
+            return (option.getPenaltyDelta() > 0 ? "+" : "") + option.getPenaltyDelta();
+        StringBuilder sb = new StringBuilder();
+        if (option.isStudentClash())
+            sb.append('S');
+        if (option.isRoomClash())
+            sb.append('R');
+        if (option.isConsecutiveClash())
+            sb.append('C');
+        if (option.isDayLimitExceeded())
+            sb.append('D');
+        return sb.toString();
+    }
+
+    private static String describe(SlotOption option) {
+        if (option.isFeasible())
+            return "Penalty change: " + option.getPenaltyDelta();
+        List<String> reasons = new ArrayList<>();
+        if (option.isStudentClash())
+            reasons.add("students already have an exam in this slot");
+        if (option.isRoomClash())
+            reasons.add("a classroom is already taken");
+        if (option.isConsecutiveClash())
+            reasons.add("students would have consecutive exams");
+        if (option.isDayLimitExceeded())
+            reasons.add("students would have more than two exams that day");
+        return String.join("\n", reasons);
+    }
+
+    private static String cellColour(SlotOption option, int best, int worst) {
+        if (!option.isFeasible())
+            return "#e8a0a0";
+        double t = worst > best ? (double) (option.getPenaltyDelta() - best) / (worst - best) : 0;
+        int red = (int) Math.round(0x8f + t * (0xf2 - 0x8f));
+        int green = (int) Math.round(0xd1 + t * (0xe3 - 0xd1));
+        int blue = (int) Math.round(0x8f + t * (0x94 - 0x8f));
+        return String.format("#%02x%02x%02x", red, green, blue);
+    }
+
     private void revertRow(CourseScheduleRow row, Exam exam, TableView<CourseScheduleRow> table) {
         row.setDay(exam.getSlot().getDay());
         row.setSlotIndex(exam.getSlot().getIndex());
@@ -3,6 +3,7 @@ package com.example.scheduler.view;
 import com.example.scheduler.controller.SlotController;
 import com.example.scheduler.model.Schedule;
 import com.example.scheduler.model.SlotConfigurationRow;
+import com.example.scheduler.service.MinimumDaysSearch;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -14,19 +15,28 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @SuppressWarnings("deprecation")
 public class SlotTabView {
 
     private final SlotController controller;
     private final Consumer<Schedule> onScheduleUpdate;
+    private final Supplier<Schedule> currentSchedule;
     private final Stage stage; // For FileChooser
     private Spinner<Integer> dayCountSpinner;
 
     public SlotTabView(SlotController controller, Stage stage, Consumer<Schedule> onScheduleUpdate) {
+        this(controller, stage, onScheduleUpdate, () -> null);
+    }
+
+    // currentSchedule gives the schedule to repair after the slots change.
+    public SlotTabView(SlotController controller, Stage stage, Consumer<Schedule> onScheduleUpdate,
+            Supplier<Schedule> currentSchedule) {
         this.controller = controller;
         this.stage = stage;
         this.onScheduleUpdate = onScheduleUpdate;
+        this.currentSchedule = currentSchedule;
     }
 
     public Tab createTab() {
@@ -65,7 +75,10 @@ public class SlotTabView {
         saveButton.setStyle("-fx-background-color: #2ecc71; -fx-text-fill: white;");
         saveButton.setOnAction(e -> handleSaveConfiguration());
 
-        controls.getChildren().addAll(dayLabel, dayCountSpinner, addNewSlotButton, saveButton);
+        Button minimumDaysButton = new Button("🔍 Find Minimum Days");
+        minimumDaysButton.setOnAction(e -> handleFindMinimumDays());
+
+        controls.getChildren().addAll(dayLabel, dayCountSpinner, addNewSlotButton, saveButton, minimumDaysButton);
         return controls;
     }
 
@@ -128,12 +141,24 @@ public class SlotTabView {
             return;
 
         try {
-            Schedule schedule = controller.saveConfiguration(file, numDays);
+            controller.saveSlots(file, numDays);
+        } catch (Exception e) {
+            showError("Save Error", e.getMessage());
+            return;
+        }
+
+        Schedule previous = currentSchedule.get();
+        new SolverProgressDialog(stage, "Rescheduling").run(monitor -> controller.reschedule(previous, monitor), result -> {
+            Schedule schedule = result == null ? null : result.getSchedule();
 
             String msg = "Slot configuration has been saved successfully.\n" +
                     "Number of days: " + numDays;
             if (schedule != null) {
-                msg += "\n\nThe schedule was automatically regenerated.";
+                msg += "\n\nThe schedule was automatically updated for the new slots.";
+                if (!result.getRelaxations().isEmpty()) {
+                    msg += "\nScheduling was stopped early: " + result.getRelaxations().size()
+                            + " course(s) are not scheduled yet.";
+                }
             } else {
                 msg += "\n\nNote: Use Actions > Run / Re-run Scheduling to generate a schedule.";
             }
@@ -142,10 +167,60 @@ public class SlotTabView {
             if (onScheduleUpdate != null) {
                 onScheduleUpdate.accept(schedule);
             }
+        }, error -> showError("Save Error", "Slot configuration was saved, but rescheduling failed:\n"
+                + error.getMessage()));
+    }
 
+    // Races day counts for the current slot rows and applies the fewest that could be scheduled.
+    private void handleFindMinimumDays() {
+        MinimumDaysSearch search;
+        try {
+            search = controller.createMinimumDaysSearch();
         } catch (Exception e) {
-            showError("Save Error", e.getMessage());
+            showError("Minimum Days", e.getMessage());
+            return;
         }
+
+        new SolverProgressDialog(stage, "Finding minimum days").run(monitor -> search.search(monitor), result -> {
+            StringBuilder tried = new StringBuilder();
+            search.getOutcomes().forEach((d, outcome) -> tried.append("\n  ").append(d).append(" days: ").append(outcome));
+            if (result == null && search.isStopped()) {
+                showInfo("Minimum Days", "Search cancelled."
+                        + (tried.length() == 0 ? "" : "\n\nDay counts tried so far:" + tried));
+                return;
+            }
+            if (result == null) {
+                showError("Minimum Days", "No number of days could be scheduled with these slots." + tried);
+                return;
+            }
+
+            int days = search.getDays();
+            try {
+                controller.saveSlots(null, days);
+            } catch (Exception e) {
+                showError("Minimum Days", e.getMessage());
+                return;
+            }
+            SpinnerValueFactory.IntegerSpinnerValueFactory factory =
+                    (SpinnerValueFactory.IntegerSpinnerValueFactory) dayCountSpinner.getValueFactory();
+            factory.setMax(Math.max(factory.getMax(), days));
+            factory.setValue(days);
+
+            String msg = "Fewest exam days: " + days
+                    + (search.isProvenMinimal() ? " (no fewer days can work)" : " (lower bound: " + search.getLowerBound() + ")")
+                    + "\nPenalty score: " + result.getPenaltyScore()
+                    + "\n\nDay counts tried:" + tried
+                    + "\n\nThe schedule was updated. Use Save Configuration to keep these slots in a file.";
+            if (!result.getRelaxations().isEmpty()) {
+                msg += "\nScheduling was stopped early: " + result.getRelaxations().size()
+                        + " course(s) are not scheduled yet.";
+            }
+            showInfo("Minimum Days", msg);
+
+            if (onScheduleUpdate != null) {
+                onScheduleUpdate.accept(result.getSchedule());
+            }
+        }, error -> showError("Minimum Days", "The search failed:\n" + error.getMessage()));
     }
 
     private void showInfo(String title, String message) {
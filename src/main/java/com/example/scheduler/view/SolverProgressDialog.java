@@ -0,0 +1,100 @@
+package com.example.scheduler.view;
+
+import com.example.scheduler.model.SchedulingResult;
+import com.example.scheduler.service.SolverMonitor;
+import com.example.scheduler.service.SolverProgress;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Runs a solver on a background thread behind a small modal window that shows its progress.
+// "Stop" cancels the run; the solver then hands back the best schedule it had found.
+public class SolverProgressDialog {
+
+    private final Window owner;
+    private final String title;
+
+    public SolverProgressDialog(Window owner, String title) {
+        this.owner = owner;
+        this.title = title;
+    }
+
+    // onDone and onError are called on the JavaFX thread; onDone may receive null.
+    public void run(Function<SolverMonitor, SchedulingResult> solver, Consumer<SchedulingResult> onDone,
+            Consumer<Throwable> onError) {
+        Label phaseLabel = new Label("Starting...");
+        phaseLabel.setStyle("-fx-font-weight: bold;");
+        Label detailLabel = new Label("");
+        ProgressBar progressBar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        progressBar.setPrefWidth(360);
+
+        SolverMonitor monitor = new SolverMonitor(0,
+                progress -> Platform.runLater(() -> show(progress, phaseLabel, detailLabel, progressBar)));
+
+        Button stopButton = new Button("Stop and Use Best So Far");
+        stopButton.setOnAction(e -> {
+            monitor.cancel();
+            stopButton.setDisable(true);
+            phaseLabel.setText("Stopping...");
+        });
+
+        VBox layout = new VBox(10, phaseLabel, progressBar, detailLabel, stopButton);
+        layout.setPadding(new Insets(15));
+
+        Stage stage = new Stage();
+        stage.setTitle(title);
+        if (owner != null) {
+            stage.initOwner(owner);
+            stage.initModality(Modality.WINDOW_MODAL);
+        }
+        stage.setScene(new Scene(layout));
+        stage.setOnCloseRequest(e -> monitor.cancel());
+
+        Task<SchedulingResult> task = new Task<SchedulingResult>() {
+            @Override
+            protected SchedulingResult call() {
+                return solver.apply(monitor);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            stage.close();
+            onDone.accept(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            stage.close();
+            onError.accept(task.getException());
+        });
+
+        Thread worker = new Thread(task, "exam-scheduler-solver");
+        worker.setDaemon(true);
+        worker.start();
+        stage.show();
+    }
+
+    private static void show(SolverProgress progress, Label phaseLabel, Label detailLabel, ProgressBar progressBar) {
+        phaseLabel.setText(progress.getPhase());
+        StringBuilder sb = new StringBuilder();
+        sb.append("Courses placed: ").append(progress.getCoursesPlaced()).append(" / ").append(progress.getTotalCourses());
+        sb.append("\nBest penalty: ").append(progress.getBestPenalty() < 0 ? "none yet" : progress.getBestPenalty());
+        sb.append("\nNodes explored: ").append(progress.getNodesExplored());
+        sb.append("\nElapsed: ").append(progress.getElapsedMillis() / 1000).append(" s");
+        detailLabel.setText(sb.toString());
+
+        if (progress.getTotalCourses() > 0 && progress.getCoursesPlaced() < progress.getTotalCourses()) {
+            progressBar.setProgress((double) progress.getCoursesPlaced() / progress.getTotalCourses());
+        } else {
+            progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+        }
+    }
+}
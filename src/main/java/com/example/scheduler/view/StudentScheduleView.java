@@ -91,7 +91,7 @@ public class StudentScheduleView {
 
             for (Exam exam : schedule.getAllExams()) {
                 // is this student registered to this course
-                if (exam.getCourse().getStudentIds().contains(studentId)) {
+                if (exam.getCourse().containsStudent(studentId)) {
                     String rooms = exam.getAssignedRooms()
                             .stream()
                             .map(Classroom::getRoomId)